@@ -0,0 +1,226 @@
+package com.smartfa.common.ai;
+
+import com.smartfa.common.annotation.AIMonitor;
+import com.smartfa.common.exception.BusinessException;
+import com.smartfa.common.enums.ResultCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * AI推理微批调度器
+ * 按(serviceName, operation)收集并发请求，达到批大小或等待超过max-delay后合并为一次批量调用，
+ * 再把结果按顺序拆分给各个等待的调用方。@AIMonitor(batchable = true)的单参数方法经切面进入此调度器，
+ * 未注册处理器时按原调用链单条执行
+ */
+@Component
+public class AIBatchDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AIBatchDispatcher.class);
+
+    @Value("${ai.batch.max-batch-size:32}")
+    private int maxBatchSize;
+
+    @Value("${ai.batch.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    @Autowired(required = false)
+    private List<AIBatchHandler<?, ?>> handlers;
+
+    private final Map<String, BatchQueue<?, ?>> queues = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-batch-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    public void init() {
+        if (handlers != null) {
+            handlers.forEach(this::registerHandler);
+        }
+    }
+
+    /**
+     * 注册批量处理器
+     */
+    public <I, O> void registerHandler(AIBatchHandler<I, O> handler) {
+        String key = key(handler.serviceName(), handler.operation());
+        int batchSize = handler.maxBatchSize() > 0 ? handler.maxBatchSize() : maxBatchSize;
+        long delayMs = handler.maxDelayMs() >= 0 ? handler.maxDelayMs() : maxDelayMs;
+        if (queues.putIfAbsent(key, new BatchQueue<>(handler, batchSize, delayMs)) != null) {
+            throw new IllegalStateException("重复的AI批量处理器: " + key);
+        }
+        log.info("注册AI批量处理器: {}, batchSize={}, maxDelayMs={}", key, batchSize, delayMs);
+    }
+
+    /**
+     * 对@AIMonitor(batchable = true)且已注册处理器的单参数调用进行微批，其余调用直接执行
+     */
+    public Object execute(ProceedingJoinPoint joinPoint, AIMonitor aiMonitor, AIInvocation invocation) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        if (!aiMonitor.batchable() || args.length != 1) {
+            return invocation.proceed();
+        }
+        String serviceName = AICallGuard.resolveServiceName(joinPoint, aiMonitor);
+        if (!queues.containsKey(key(serviceName, aiMonitor.operation()))) {
+            return invocation.proceed();
+        }
+
+        CompletableFuture<Object> future = submit(serviceName, aiMonitor.operation(), args[0]);
+        try {
+            return aiMonitor.timeout() > 0
+                    ? future.get(aiMonitor.timeout(), TimeUnit.MILLISECONDS)
+                    : future.get();
+        } catch (TimeoutException e) {
+            throw new BusinessException(ResultCode.MODEL_INFERENCE_TIMEOUT,
+                    "AI批量调用超时(" + aiMonitor.timeout() + "ms): " + serviceName);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 提交一条推理请求
+     *
+     * @return 该条输入对应的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <I, O> CompletableFuture<O> submit(String serviceName, String operation, I input) {
+        BatchQueue<I, O> queue = (BatchQueue<I, O>) queues.get(key(serviceName, operation));
+        if (queue == null) {
+            return CompletableFuture.failedFuture(new BusinessException(ResultCode.AI_SERVICE_ERROR,
+                    "未注册AI批量处理器: " + key(serviceName, operation)));
+        }
+        return queue.add(input);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queues.values().forEach(BatchQueue::flushNow);
+        scheduler.shutdownNow();
+        executor.shutdown();
+    }
+
+    private static String key(String serviceName, String operation) {
+        return serviceName + ":" + operation;
+    }
+
+    /**
+     * 单个(serviceName, operation)的待发送队列
+     */
+    private final class BatchQueue<I, O> {
+
+        private final AIBatchHandler<I, O> handler;
+        private final int batchSize;
+        private final long delayMs;
+
+        private List<I> inputs;
+        private List<CompletableFuture<O>> futures;
+        private ScheduledFuture<?> timer;
+
+        private BatchQueue(AIBatchHandler<I, O> handler, int batchSize, long delayMs) {
+            this.handler = handler;
+            this.batchSize = batchSize;
+            this.delayMs = delayMs;
+            resetPending();
+        }
+
+        private CompletableFuture<O> add(I input) {
+            CompletableFuture<O> future = new CompletableFuture<>();
+            Batch<I, O> ready = null;
+            synchronized (this) {
+                inputs.add(input);
+                futures.add(future);
+                if (inputs.size() >= batchSize) {
+                    ready = takePending();
+                } else if (inputs.size() == 1) {
+                    timer = scheduler.schedule(this::flushNow, delayMs, TimeUnit.MILLISECONDS);
+                }
+            }
+            if (ready != null) {
+                dispatch(ready);
+            }
+            return future;
+        }
+
+        private void flushNow() {
+            Batch<I, O> ready;
+            synchronized (this) {
+                if (inputs.isEmpty()) {
+                    return;
+                }
+                ready = takePending();
+            }
+            dispatch(ready);
+        }
+
+        private Batch<I, O> takePending() {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+            Batch<I, O> batch = new Batch<>(inputs, futures);
+            resetPending();
+            return batch;
+        }
+
+        private void resetPending() {
+            inputs = new ArrayList<>(batchSize);
+            futures = new ArrayList<>(batchSize);
+        }
+
+        private void dispatch(Batch<I, O> batch) {
+            executor.execute(() -> {
+                try {
+                    List<O> outputs = handler.invokeBatch(batch.inputs);
+                    if (outputs == null || outputs.size() != batch.inputs.size()) {
+                        throw new BusinessException(ResultCode.AI_SERVICE_ERROR, "AI批量调用返回条数与请求不一致");
+                    }
+                    for (int i = 0; i < outputs.size(); i++) {
+                        batch.futures.get(i).complete(outputs.get(i));
+                    }
+                } catch (Throwable t) {
+                    log.warn("AI批量调用失败: {}:{}, size={}, error={}",
+                            handler.serviceName(), handler.operation(), batch.inputs.size(), t.getMessage());
+                    batch.futures.forEach(future -> future.completeExceptionally(t));
+                }
+            });
+        }
+    }
+
+    /**
+     * 已凑好的一批请求
+     */
+    private static final class Batch<I, O> {
+
+        private final List<I> inputs;
+        private final List<CompletableFuture<O>> futures;
+
+        private Batch(List<I> inputs, List<CompletableFuture<O>> futures) {
+            this.inputs = inputs;
+            this.futures = futures;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartfa.common.ai;
+
+import java.util.List;
+
+/**
+ * AI批量推理处理器
+ * 每个(serviceName, operation)对应一个实现，负责把一批输入作为一次调用发送给模型服务
+ *
+ * @param <I> 单条输入类型
+ * @param <O> 单条输出类型
+ */
+public interface AIBatchHandler<I, O> {
+
+    /**
+     * 服务名称，与@AIMonitor.serviceName一致
+     */
+    String serviceName();
+
+    /**
+     * 操作类型，与@AIMonitor.operation一致
+     */
+    String operation();
+
+    /**
+     * 批量调用模型服务
+     *
+     * @param inputs 一批输入
+     * @return 与输入一一对应、顺序相同的输出
+     */
+    List<O> invokeBatch(List<I> inputs) throws Exception;
+
+    /**
+     * 单批最大条数，小于等于0时使用全局配置
+     */
+    default int maxBatchSize() {
+        return 0;
+    }
+
+    /**
+     * 凑批最长等待时间（毫秒），小于0时使用全局配置
+     */
+    default long maxDelayMs() {
+        return -1;
+    }
+}
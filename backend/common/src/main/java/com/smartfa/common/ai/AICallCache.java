@@ -0,0 +1,129 @@
+package com.smartfa.common.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartfa.common.annotation.AIMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI调用请求合并与结果缓存
+ * 以(serviceName, operation, 方法签名, 入参)的SHA-256为键：进行中的相同调用共享同一个Future，
+ * 完成的结果进入按容量和TTL淘汰的缓存。失败或返回null的调用不会被缓存。
+ * 缓存结果在调用方之间共享，调用方不应修改返回对象
+ */
+@Component
+public class AICallCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AICallCache.class);
+
+    @Value("${ai.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${ai.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AsyncCache<String, Object> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "aiCallCache");
+    }
+
+    /**
+     * 对@AIMonitor(cacheable = true)的调用进行合并和缓存，其余调用直接执行
+     */
+    public Object execute(ProceedingJoinPoint joinPoint, AIMonitor aiMonitor, AIInvocation invocation) throws Throwable {
+        if (!enabled || !aiMonitor.cacheable()) {
+            return invocation.proceed();
+        }
+
+        String key = cacheKey(joinPoint, aiMonitor);
+        if (key == null) {
+            return invocation.proceed();
+        }
+
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = cache.asMap().putIfAbsent(key, created);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            Object result = invocation.proceed();
+            created.complete(result);
+            return result;
+        } catch (Throwable t) {
+            created.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private Object await(CompletableFuture<Object> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 计算调用内容哈希，入参无法序列化时返回null（不参与缓存）
+     */
+    private String cacheKey(ProceedingJoinPoint joinPoint, AIMonitor aiMonitor) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(AICallGuard.resolveServiceName(joinPoint, aiMonitor).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(aiMonitor.operation().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(joinPoint.getSignature().toLongString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                objectMapper.writeValue(out, joinPoint.getArgs());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            log.debug("AI调用入参无法计算缓存键，跳过缓存: {}", e.getMessage());
+            return null;
+        }
+    }
+}
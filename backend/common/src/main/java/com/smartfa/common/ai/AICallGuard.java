@@ -0,0 +1,219 @@
+package com.smartfa.common.ai;
+
+import com.smartfa.common.annotation.AIMonitor;
+import com.smartfa.common.enums.ResultCode;
+import com.smartfa.common.exception.BusinessException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * AI服务调用保护
+ * 按@AIMonitor.serviceName隔离：并发舱壁（Semaphore）+ 熔断器 + 强制超时，只有超时和I/O、远程错误计入熔断。
+ * 调用在独立的虚拟线程上执行，请求线程最多等待timeout毫秒；舱壁许可在调用真正结束后才释放，
+ * 因此卡死的模型服务最多只能占用max-concurrent个调用
+ */
+@Component
+public class AICallGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(AICallGuard.class);
+
+    /**
+     * 表示AI服务本身不可用的业务错误码
+     */
+    private static final Set<Integer> SERVICE_FAILURE_CODES = Set.of(
+            ResultCode.MODEL_INFERENCE_TIMEOUT.getCode(),
+            ResultCode.MODEL_CALL_ERROR.getCode(),
+            ResultCode.AI_SERVICE_ERROR.getCode(),
+            ResultCode.SERVICE_UNAVAILABLE.getCode());
+
+    @Value("${ai.guard.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每个AI服务允许的最大并发调用数
+     */
+    @Value("${ai.guard.max-concurrent:16}")
+    private int maxConcurrent;
+
+    /**
+     * 舱壁已满时的最长等待时间（毫秒），0表示立即拒绝
+     */
+    @Value("${ai.guard.max-wait-ms:0}")
+    private long maxWaitMs;
+
+    /**
+     * 连续失败多少次后打开熔断器
+     */
+    @Value("${ai.guard.failure-threshold:5}")
+    private int failureThreshold;
+
+    /**
+     * 熔断器打开后的冷却时间（毫秒）
+     */
+    @Value("${ai.guard.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    private final Map<String, ServiceGuard> guards = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 在舱壁、熔断和超时保护下执行AI调用
+     */
+    public Object execute(ProceedingJoinPoint joinPoint, AIMonitor aiMonitor) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+
+        String serviceName = resolveServiceName(joinPoint, aiMonitor);
+        ServiceGuard guard = guards.computeIfAbsent(serviceName, ServiceGuard::new);
+
+        long permit = guard.circuitBreaker.tryAcquirePermission();
+        if (permit == CircuitBreaker.REJECTED) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "AI服务熔断中: " + serviceName);
+        }
+        boolean acquired;
+        try {
+            acquired = guard.bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            guard.circuitBreaker.releasePermission(permit);
+            throw e;
+        }
+        if (!acquired) {
+            guard.circuitBreaker.releasePermission(permit);
+            throw new BusinessException(ResultCode.SYSTEM_BUSY, "AI服务并发已满: " + serviceName);
+        }
+
+        try {
+            Object result = aiMonitor.timeout() > 0
+                    ? invokeWithDeadline(joinPoint, guard, aiMonitor.timeout())
+                    : invokeInline(joinPoint, guard);
+            guard.circuitBreaker.onSuccess(permit);
+            return result;
+        } catch (Throwable t) {
+            if (!isServiceFailure(t)) {
+                guard.circuitBreaker.releasePermission(permit);
+            } else if (guard.circuitBreaker.onFailure(permit)) {
+                log.warn("AI服务熔断器打开: {}, 冷却 {} ms", serviceName, openDurationMs);
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * 获取各AI服务熔断器状态
+     */
+    public Map<String, CircuitBreaker.State> getCircuitStates() {
+        Map<String, CircuitBreaker.State> states = new ConcurrentHashMap<>();
+        guards.forEach((name, guard) -> states.put(name, guard.circuitBreaker.getState()));
+        return states;
+    }
+
+    private Object invokeInline(ProceedingJoinPoint joinPoint, ServiceGuard guard) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } finally {
+            guard.bulkhead.release();
+        }
+    }
+
+    private Object invokeWithDeadline(ProceedingJoinPoint joinPoint, ServiceGuard guard, long timeoutMs) throws Throwable {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(joinPoint.proceed());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    guard.bulkhead.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            guard.bulkhead.release();
+            throw e;
+        }
+
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            throw new BusinessException(ResultCode.MODEL_INFERENCE_TIMEOUT,
+                    "AI服务调用超时(" + timeoutMs + "ms): " + guard.serviceName);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * 只有超时、I/O错误和远程服务端错误计入熔断，参数校验等业务异常说明服务本身可用
+     */
+    static boolean isServiceFailure(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BusinessException e && SERVICE_FAILURE_CODES.contains(e.getCode())) {
+                return true;
+            }
+            if (cause instanceof IOException
+                    || cause instanceof TimeoutException
+                    || cause instanceof ResourceAccessException
+                    || cause instanceof HttpServerErrorException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String resolveServiceName(ProceedingJoinPoint joinPoint, AIMonitor aiMonitor) {
+        if (StringUtils.hasText(aiMonitor.serviceName())) {
+            return aiMonitor.serviceName();
+        }
+        return ClassUtils.getUserClass(joinPoint.getSignature().getDeclaringType()).getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 单个AI服务的舱壁与熔断器
+     */
+    private final class ServiceGuard {
+
+        private final String serviceName;
+        private final Semaphore bulkhead;
+        private final CircuitBreaker circuitBreaker;
+
+        private ServiceGuard(String serviceName) {
+            this.serviceName = serviceName;
+            this.bulkhead = new Semaphore(maxConcurrent);
+            this.circuitBreaker = new CircuitBreaker(failureThreshold, openDurationMs);
+        }
+    }
+}
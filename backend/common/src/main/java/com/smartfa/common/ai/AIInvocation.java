@@ -0,0 +1,10 @@
+package com.smartfa.common.ai;
+
+/**
+ * AI调用链中的下一步调用
+ */
+@FunctionalInterface
+public interface AIInvocation {
+
+    Object proceed() throws Throwable;
+}
@@ -0,0 +1,113 @@
+package com.smartfa.common.ai;
+
+/**
+ * 简单熔断器
+ * 连续失败达到阈值后打开，打开期间快速失败；冷却结束后放行一个试探调用（半开），
+ * 试探成功则关闭，失败则重新打开。
+ * 每次状态切换代次加一，许可记录获取时的代次，旧代次许可的结果（如打开前发出的慢调用）不影响当前状态
+ */
+public class CircuitBreaker {
+
+    /**
+     * 未获得许可
+     */
+    public static final long REJECTED = -1L;
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long generation;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * 申请本次调用的许可
+     *
+     * @return 许可的代次，调用结束后传给onSuccess、onFailure或releasePermission；不允许调用时返回REJECTED
+     */
+    public synchronized long tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return generation;
+        }
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                return REJECTED;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (trialInFlight) {
+            return REJECTED;
+        }
+        trialInFlight = true;
+        return generation;
+    }
+
+    /**
+     * 已获取的许可未实际使用（如舱壁拒绝）或调用以非服务故障结束，不影响熔断状态
+     */
+    public synchronized void releasePermission(long permit) {
+        if (permit == generation) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * 记录成功，只有当前代次的许可才会清零失败计数或关闭半开的熔断器
+     */
+    public synchronized void onSuccess(long permit) {
+        if (permit != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * 记录失败，旧代次许可的失败被忽略
+     *
+     * @return 本次失败是否导致熔断器打开
+     */
+    public synchronized boolean onFailure(long permit) {
+        if (permit != generation) {
+            return false;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            transitionTo(State.OPEN);
+            openedAt = System.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        trialInFlight = false;
+        if (newState == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+    }
+}
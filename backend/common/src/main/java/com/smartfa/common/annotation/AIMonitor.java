@@ -29,7 +29,17 @@ public @interface AIMonitor {
     boolean logInputOutput() default false;
     
     /**
-     * 超时时间（毫秒）
+     * 超时时间（毫秒），由切面强制执行，小于等于0表示不限制
      */
     long timeout() default 30000;
+
+    /**
+     * 是否合并相同输入的并发调用并缓存结果（仅用于幂等的分析类调用）
+     */
+    boolean cacheable() default false;
+
+    /**
+     * 是否与同一服务、操作的并发调用合并为一次批量调用（需注册对应的AIBatchHandler，方法只能有一个入参）
+     */
+    boolean batchable() default false;
 }
\ No newline at end of file
@@ -1,5 +1,14 @@
 package com.smartfa.common.aspect;
 
+import com.smartfa.common.ai.AIBatchDispatcher;
+import com.smartfa.common.ai.AICallCache;
+import com.smartfa.common.ai.AICallGuard;
+import com.smartfa.common.annotation.AIMonitor;
+import com.smartfa.common.monitor.AICallEvent;
+import com.smartfa.common.monitor.BoundaryEvent;
+import com.smartfa.common.monitor.CallTreeRecorder;
+import com.smartfa.common.monitor.JfrEventSwitch;
+import com.smartfa.common.monitor.MethodExecutionEvent;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
@@ -7,14 +16,22 @@ import org.slf4j.LoggerFactory;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StopWatch;
+import org.springframework.util.ClassUtils;
 
-import java.util.concurrent.CompletableFuture;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 监控切面
+ * 每个连接点的Timer只在首次调用时解析一次并缓存，调用路径上只做System.nanoTime计时
  */
 @Aspect
 @Component
@@ -22,15 +39,61 @@ public class MonitoringAspect {
 
     private static final Logger log = LoggerFactory.getLogger(MonitoringAspect.class);
 
+    public static final String METRIC_NAME = "method.execution.time";
+
     @Autowired
     private MeterRegistry meterRegistry;
 
+    @Autowired
+    private CallTreeRecorder callTreeRecorder;
+
+    @Autowired
+    private JfrEventSwitch jfrEventSwitch;
+
+    @Autowired
+    private AICallGuard aiCallGuard;
+
+    @Autowired
+    private AICallCache aiCallCache;
+
+    @Autowired
+    private AIBatchDispatcher aiBatchDispatcher;
+
+    /**
+     * 慢调用阈值（毫秒）
+     */
+    @Value("${monitoring.slow-threshold-ms:1000}")
+    private long slowThresholdMs;
+
+    /**
+     * 各层采样率（0.0 ~ 1.0），采样外的调用不记录Timer
+     */
+    @Value("${monitoring.sampling.controller:1.0}")
+    private double controllerSampleRate;
+
+    @Value("${monitoring.sampling.service:1.0}")
+    private double serviceSampleRate;
+
+    @Value("${monitoring.sampling.repository:1.0}")
+    private double repositorySampleRate;
+
+    @Value("${monitoring.sampling.ai-service:1.0}")
+    private double aiServiceSampleRate;
+
+    /**
+     * 已解析的方法指标，按层区分
+     */
+    private final Map<MethodKey, MethodMetrics> controllerMetrics = new ConcurrentHashMap<>();
+    private final Map<MethodKey, MethodMetrics> serviceMetrics = new ConcurrentHashMap<>();
+    private final Map<MethodKey, MethodMetrics> repositoryMetrics = new ConcurrentHashMap<>();
+    private final Map<MethodKey, MethodMetrics> aiServiceMetrics = new ConcurrentHashMap<>();
+
     /**
      * 监控Service层方法执行时间
      */
     @Around("execution(* com.smartfa.*.service..*.*(..))")
     public Object monitorServicePerformance(ProceedingJoinPoint joinPoint) throws Throwable {
-        return monitorMethodPerformance(joinPoint, "service");
+        return monitorMethodPerformance(joinPoint, "service", serviceMetrics, serviceSampleRate, null);
     }
 
     /**
@@ -38,7 +101,7 @@ public class MonitoringAspect {
      */
     @Around("execution(* com.smartfa.*.controller..*.*(..))")
     public Object monitorControllerPerformance(ProceedingJoinPoint joinPoint) throws Throwable {
-        return monitorMethodPerformance(joinPoint, "controller");
+        return monitorMethodPerformance(joinPoint, "controller", controllerMetrics, controllerSampleRate, null);
     }
 
     /**
@@ -46,59 +109,154 @@ public class MonitoringAspect {
      */
     @Around("execution(* com.smartfa.*.mapper..*.*(..))")
     public Object monitorRepositoryPerformance(ProceedingJoinPoint joinPoint) throws Throwable {
-        return monitorMethodPerformance(joinPoint, "repository");
+        return monitorMethodPerformance(joinPoint, "repository", repositoryMetrics, repositorySampleRate, null);
     }
 
     /**
-     * 监控AI服务调用
+     * 监控AI服务调用，并经过请求合并、缓存以及舱壁、熔断和超时保护后执行
      */
-    @Around("@annotation(com.smartfa.common.annotation.AIMonitor)")
-    public Object monitorAICall(ProceedingJoinPoint joinPoint) throws Throwable {
-        return monitorMethodPerformance(joinPoint, "ai_service");
+    @Around("@annotation(aiMonitor)")
+    public Object monitorAICall(ProceedingJoinPoint joinPoint, AIMonitor aiMonitor) throws Throwable {
+        return monitorMethodPerformance(joinPoint, "ai_service", aiServiceMetrics, aiServiceSampleRate, aiMonitor);
     }
 
     /**
      * 通用方法性能监控
      */
-    private Object monitorMethodPerformance(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        String methodName = joinPoint.getSignature().getName();
-        String metricName = String.format("%s.%s.%s", layer, className, methodName);
-
-        StopWatch stopWatch = new StopWatch(metricName);
-        stopWatch.start();
+    private Object monitorMethodPerformance(ProceedingJoinPoint joinPoint, String layer,
+                                            Map<MethodKey, MethodMetrics> layerMetrics,
+                                            double sampleRate, AIMonitor aiMonitor) throws Throwable {
+        boolean sampled = sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
 
-        Timer.Sample sample = Timer.start(meterRegistry);
-        Object result = null;
-        Exception exception = null;
+        BoundaryEvent event = null;
+        if (jfrEventSwitch.isEnabled()) {
+            event = aiMonitor != null ? new AICallEvent() : new MethodExecutionEvent();
+            event.begin();
+        }
 
+        long startNanos = System.nanoTime();
+        int span = callTreeRecorder.enter(layer, startNanos);
+        boolean success = false;
         try {
-            result = joinPoint.proceed();
+            Object result = aiMonitor != null ? invokeAICall(joinPoint, aiMonitor) : joinPoint.proceed();
+            success = true;
             return result;
-        } catch (Exception e) {
-            exception = e;
-            throw e;
         } finally {
-            stopWatch.stop();
-            sample.stop(Timer.builder("method.execution.time")
-                    .tag("layer", layer)
-                    .tag("class", className)
-                    .tag("method", methodName)
-                    .tag("status", exception == null ? "success" : "error")
-                    .register(meterRegistry));
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            boolean slow = elapsedMillis > slowThresholdMs;
 
-            // 记录慢查询
-            if (stopWatch.getTotalTimeMillis() > 1000) {
-                log.warn("Slow method execution: {} took {} ms", 
-                        metricName, stopWatch.getTotalTimeMillis());
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    commitEvent(event, resolveMetrics(joinPoint, layer, layerMetrics), layer, success, aiMonitor);
+                }
             }
 
-            // 记录方法执行日志
-            if (log.isDebugEnabled()) {
-                log.debug("Method {} executed in {} ms with status: {}", 
-                        metricName, stopWatch.getTotalTimeMillis(), 
-                        exception == null ? "success" : "error");
+            if (sampled || slow || span != CallTreeRecorder.NOT_RECORDING || log.isDebugEnabled()) {
+                MethodMetrics metrics = resolveMetrics(joinPoint, layer, layerMetrics);
+                callTreeRecorder.exit(span, metrics.metricName, elapsedNanos, success);
+
+                if (sampled) {
+                    (success ? metrics.successTimer : metrics.errorTimer)
+                            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+                }
+
+                // 记录慢查询
+                if (slow) {
+                    log.warn("Slow method execution: {} took {} ms", metrics.metricName, elapsedMillis);
+                }
+
+                // 记录方法执行日志
+                if (log.isDebugEnabled()) {
+                    log.debug("Method {} executed in {} ms with status: {}",
+                            metrics.metricName, elapsedMillis, success ? "success" : "error");
+                }
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * AI调用链：请求合并/结果缓存 -> 微批 或 舱壁、熔断与超时 -> 实际调用
+     */
+    private Object invokeAICall(ProceedingJoinPoint joinPoint, AIMonitor aiMonitor) throws Throwable {
+        return aiCallCache.execute(joinPoint, aiMonitor, () -> aiBatchDispatcher.execute(joinPoint, aiMonitor,
+                () -> aiCallGuard.execute(joinPoint, aiMonitor)));
+    }
+
+    /**
+     * 填充并提交JFR事件
+     */
+    private void commitEvent(BoundaryEvent event, MethodMetrics metrics, String layer,
+                             boolean success, AIMonitor aiMonitor) {
+        event.setBoundary(metrics.className, metrics.methodName, layer, success);
+        if (event instanceof AICallEvent aiCallEvent) {
+            aiCallEvent.setAIService(aiMonitor.serviceName(), aiMonitor.operation());
+        }
+        event.commit();
+    }
+
+    /**
+     * 获取连接点对应的指标，首次调用时注册Timer
+     */
+    private MethodMetrics resolveMetrics(ProceedingJoinPoint joinPoint, String layer,
+                                         Map<MethodKey, MethodMetrics> layerMetrics) {
+        Class<?> targetClass = joinPoint.getTarget() != null
+                ? joinPoint.getTarget().getClass()
+                : joinPoint.getSignature().getDeclaringType();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+
+        MethodKey key = new MethodKey(targetClass, method);
+        MethodMetrics metrics = layerMetrics.get(key);
+        if (metrics == null) {
+            metrics = layerMetrics.computeIfAbsent(key,
+                    k -> new MethodMetrics(layer, resolveClassName(k.targetClass()), k.method().getName()));
+        }
+        return metrics;
+    }
+
+    /**
+     * Mapper为JDK动态代理，使用其接口名代替$ProxyN；CGLIB代理使用原始类名
+     */
+    private static String resolveClassName(Class<?> targetClass) {
+        if (Proxy.isProxyClass(targetClass) && targetClass.getInterfaces().length > 0) {
+            return targetClass.getInterfaces()[0].getSimpleName();
+        }
+        return ClassUtils.getUserClass(targetClass).getSimpleName();
+    }
+
+    /**
+     * 缓存键：同一个接口方法（如BaseMapper.selectById）在不同Mapper上需要区分
+     */
+    private record MethodKey(Class<?> targetClass, Method method) {
+    }
+
+    /**
+     * 单个方法的预注册指标
+     */
+    private final class MethodMetrics {
+
+        private final String metricName;
+        private final String className;
+        private final String methodName;
+        private final Timer successTimer;
+        private final Timer errorTimer;
+
+        private MethodMetrics(String layer, String className, String methodName) {
+            this.metricName = layer + "." + className + "." + methodName;
+            this.className = className;
+            this.methodName = methodName;
+            this.successTimer = buildTimer(layer, className, methodName, "success");
+            this.errorTimer = buildTimer(layer, className, methodName, "error");
+        }
+
+        private Timer buildTimer(String layer, String className, String methodName, String status) {
+            return Timer.builder(METRIC_NAME)
+                    .tag("layer", layer)
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("status", status)
+                    .register(meterRegistry);
+        }
+    }
+}
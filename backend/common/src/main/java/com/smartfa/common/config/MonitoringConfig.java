@@ -1,15 +1,25 @@
 package com.smartfa.common.config;
 
+import com.smartfa.common.aspect.MonitoringAspect;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Profile;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 监控配置类
  */
@@ -18,6 +28,60 @@ import org.springframework.context.annotation.Profile;
 @Profile({ "prod", "monitoring" })
 public class MonitoringConfig {
 
+    /**
+     * 客户端百分位（不可跨实例聚合，默认只对Controller层开启）
+     */
+    @Value("${monitoring.percentiles.controller:0.5,0.95,0.99}")
+    private double[] controllerPercentiles;
+
+    @Value("${monitoring.percentiles.service:}")
+    private double[] servicePercentiles;
+
+    @Value("${monitoring.percentiles.repository:}")
+    private double[] repositoryPercentiles;
+
+    @Value("${monitoring.percentiles.ai-service:0.5,0.95,0.99}")
+    private double[] aiServicePercentiles;
+
+    /**
+     * 是否发布完整的百分位直方图（桶数较多，默认关闭，仅发布SLO桶）
+     */
+    @Value("${monitoring.histogram.controller:false}")
+    private boolean controllerHistogram;
+
+    @Value("${monitoring.histogram.service:false}")
+    private boolean serviceHistogram;
+
+    @Value("${monitoring.histogram.repository:false}")
+    private boolean repositoryHistogram;
+
+    @Value("${monitoring.histogram.ai-service:false}")
+    private boolean aiServiceHistogram;
+
+    /**
+     * 服务端直方图的SLO边界（毫秒）
+     */
+    @Value("${monitoring.slo.controller:100,300,500,1000,3000}")
+    private long[] controllerSlo;
+
+    @Value("${monitoring.slo.service:50,100,300,1000}")
+    private long[] serviceSlo;
+
+    @Value("${monitoring.slo.repository:10,50,100,500}")
+    private long[] repositorySlo;
+
+    @Value("${monitoring.slo.ai-service:500,1000,3000,10000,30000}")
+    private long[] aiServiceSlo;
+
+    /**
+     * 基数保护：method.execution.time 允许的不同class/method标签值上限，超出后新Timer被丢弃
+     */
+    @Value("${monitoring.max-classes:500}")
+    private int maxClasses;
+
+    @Value("${monitoring.max-methods:2000}")
+    private int maxMethods;
+
     /**
      * Prometheus监控注册器
      */
@@ -37,6 +101,47 @@ public class MonitoringConfig {
         );
     }
 
+    /**
+     * 方法执行时间的class标签基数限制
+     */
+    @Bean
+    public MeterFilter methodExecutionClassLimitFilter() {
+        return MeterFilter.maximumAllowableTags(MonitoringAspect.METRIC_NAME, "class", maxClasses, MeterFilter.deny());
+    }
+
+    /**
+     * 方法执行时间的method标签基数限制
+     */
+    @Bean
+    public MeterFilter methodExecutionMethodLimitFilter() {
+        return MeterFilter.maximumAllowableTags(MonitoringAspect.METRIC_NAME, "method", maxMethods, MeterFilter.deny());
+    }
+
+    /**
+     * 按layer标签为方法执行时间配置百分位、直方图和SLO桶
+     */
+    @Bean
+    public MeterFilter methodExecutionDistributionFilter() {
+        Map<String, DistributionStatisticConfig> layerConfigs = Map.of(
+            "controller", layerDistribution(controllerPercentiles, controllerHistogram, controllerSlo),
+            "service", layerDistribution(servicePercentiles, serviceHistogram, serviceSlo),
+            "repository", layerDistribution(repositoryPercentiles, repositoryHistogram, repositorySlo),
+            "ai_service", layerDistribution(aiServicePercentiles, aiServiceHistogram, aiServiceSlo)
+        );
+
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!MonitoringAspect.METRIC_NAME.equals(id.getName())) {
+                    return config;
+                }
+                String layer = id.getTag("layer");
+                DistributionStatisticConfig layerConfig = layer != null ? layerConfigs.get(layer) : null;
+                return layerConfig != null ? layerConfig.merge(config) : config;
+            }
+        };
+    }
+
     /**
      * 请求计时器
      */
@@ -44,4 +149,24 @@ public class MonitoringConfig {
     public Timer.Sample timerSample(MeterRegistry registry) {
         return Timer.start(registry);
     }
-}
\ No newline at end of file
+
+    private static DistributionStatisticConfig layerDistribution(double[] percentiles, boolean histogram, long[] sloMillis) {
+        double[] sloNanos = Arrays.stream(sloMillis)
+                .mapToDouble(TimeUnit.MILLISECONDS::toNanos)
+                .toArray();
+
+        DistributionStatisticConfig.Builder builder = DistributionStatisticConfig.builder()
+                .percentilesHistogram(histogram)
+                .serviceLevelObjectives(sloNanos)
+                .expiry(Duration.ofMinutes(2))
+                .bufferLength(3);
+        if (percentiles.length > 0) {
+            builder.percentiles(percentiles);
+        }
+        if (histogram) {
+            builder.minimumExpectedValue((double) TimeUnit.MILLISECONDS.toNanos(1))
+                    .maximumExpectedValue((double) TimeUnit.SECONDS.toNanos(60));
+        }
+        return builder.build();
+    }
+}
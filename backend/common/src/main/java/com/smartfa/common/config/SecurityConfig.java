@@ -0,0 +1,68 @@
+package com.smartfa.common.config;
+
+import com.smartfa.common.security.AuthorityCache;
+import com.smartfa.common.security.JwtAuthenticationFilter;
+import com.smartfa.common.service.TokenRevocationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+/**
+ * 安全配置类
+ * 无状态JWT认证：除登录、接口文档和健康检查外均需登录，细粒度权限由@PreAuthorize按Token中的角色编码判断
+ */
+@Configuration
+@EnableMethodSecurity
+public class SecurityConfig {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+
+    /**
+     * Actuator写操作（清空慢调用、切换JFR事件等）仅限管理员
+     */
+    private static final String ACTUATOR_PATHS = "/actuator/**";
+
+    private static final String ADMIN = "ADMIN";
+
+    /**
+     * 无需登录即可访问的只读路径：健康检查和接口文档
+     */
+    private static final String[] PUBLIC_READ_PATHS = {
+            "/actuator/health/**",
+            "/doc.html",
+            "/webjars/**",
+            "/v3/api-docs/**",
+            "/swagger-ui/**",
+            "/swagger-resources/**"
+    };
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   TokenRevocationService tokenRevocationService,
+                                                   AuthorityCache authorityCache) throws Exception {
+        http.csrf(AbstractHttpConfigurer::disable)
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exception -> exception
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(HttpMethod.POST, LOGIN_PATH).permitAll()
+                        .requestMatchers(HttpMethod.GET, PUBLIC_READ_PATHS).permitAll()
+                        .requestMatchers(HttpMethod.POST, ACTUATOR_PATHS).hasAuthority(ADMIN)
+                        .requestMatchers(HttpMethod.PUT, ACTUATOR_PATHS).hasAuthority(ADMIN)
+                        .requestMatchers(HttpMethod.DELETE, ACTUATOR_PATHS).hasAuthority(ADMIN)
+                        .anyRequest().authenticated())
+                .addFilterBefore(new JwtAuthenticationFilter(tokenRevocationService, authorityCache),
+                        UsernamePasswordAuthenticationFilter.class);
+        return http.build();
+    }
+}
@@ -1,7 +1,10 @@
 package com.smartfa.common.controller;
 
+import com.smartfa.common.security.AuthorityCache;
+import com.smartfa.common.service.TokenRevocationService;
 import com.smartfa.common.service.UserService;
 import com.smartfa.common.util.JwtUtil;
+import com.smartfa.common.util.TokenClaims;
 import com.smartfa.common.vo.Result;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,13 +30,21 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AuthorityCache authorityCache;
+
     @PostMapping("/login")
     @Operation(summary = "用户登录", description = "用户登录获取访问令牌")
-    public Result<Map<String, Object>> login(@RequestBody LoginRequest loginRequest) {
+    public Result<Map<String, Object>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
+            // 反向代理之后需配置server.forward-headers-strategy，remoteAddr才是客户端的真实IP
             Result<String> loginResult = userService.login(
                 loginRequest.getUsername(), 
-                loginRequest.getPassword()
+                loginRequest.getPassword(),
+                request.getRemoteAddr()
             );
             
             if (loginResult.getCode() != 200) {
@@ -59,7 +71,8 @@ public class AuthController {
     @Operation(summary = "用户登出", description = "用户登出")
     public Result<Void> logout(@RequestHeader("Authorization") String authorization) {
         try {
-            // TODO: 实现token黑名单机制
+            String token = authorization.replace("Bearer ", "");
+            tokenRevocationService.revoke(JwtUtil.parseToken(token));
             return Result.success();
         } catch (Exception e) {
             log.error("登出失败", e);
@@ -72,9 +85,12 @@ public class AuthController {
     public Result<Object> getCurrentUser(@RequestHeader("Authorization") String authorization) {
         try {
             String token = authorization.replace("Bearer ", "");
-            String username = JwtUtil.getUsernameFromToken(token);
+            TokenClaims claims = JwtUtil.parseToken(token);
+            if (claims == null || tokenRevocationService.isRevoked(claims)) {
+                return Result.error(401, "令牌无效或已过期");
+            }
             
-            var user = userService.findByUsername(username);
+            var user = userService.findByUsername(claims.username());
             if (user == null) {
                 return Result.error(404, "用户不存在");
             }
@@ -92,14 +108,19 @@ public class AuthController {
     public Result<Map<String, Object>> refreshToken(@RequestHeader("Authorization") String authorization) {
         try {
             String token = authorization.replace("Bearer ", "");
-            String username = JwtUtil.getUsernameFromToken(token);
+            TokenClaims claims = JwtUtil.parseToken(token);
+            if (claims == null || tokenRevocationService.isRevoked(claims)) {
+                return Result.error(401, "令牌无效或已过期");
+            }
             
-            var user = userService.findByUsername(username);
+            var user = userService.findByUsername(claims.username());
             if (user == null) {
                 return Result.error(404, "用户不存在");
             }
             
-            String newToken = JwtUtil.generateToken(username);
+            String newToken = JwtUtil.createToken(user.getId(), user.getUsername(),
+                    authorityCache.getAuthorities(user.getId()));
+            tokenRevocationService.revoke(claims);
             
             Map<String, Object> data = new HashMap<>();
             data.put("token", newToken);
@@ -0,0 +1,64 @@
+package com.smartfa.common.controller;
+
+import com.smartfa.common.enums.LogType;
+import com.smartfa.common.log.LogExportFormat;
+import com.smartfa.common.service.LoggingService;
+import com.smartfa.common.util.DateTimeUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 日志控制器
+ */
+@RestController
+@RequestMapping("/api/logs")
+@Tag(name = "日志管理", description = "操作日志相关接口")
+public class LogController {
+
+    @Autowired
+    private LoggingService loggingService;
+
+    /**
+     * 流式导出在异步线程中输出，耗时受spring.mvc.async.request-timeout限制（未配置时为容器默认值，Tomcat为30秒），
+     * 导出大量日志的服务需调大该配置
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyAuthority('ADMIN')")
+    @Operation(summary = "导出日志", description = "以gzip压缩的NDJSON/CSV流式导出日志，中断后可用afterId从最后收到的日志ID续传")
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam String logType,
+            @RequestParam(required = false) String startTime,
+            @RequestParam(required = false) String endTime,
+            @RequestParam(defaultValue = "NDJSON") String format,
+            @RequestParam(defaultValue = "0") Long afterId) {
+        // 响应头发出后无法再返回错误，参数需在开始输出前校验
+        LogType type;
+        LogExportFormat exportFormat;
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            type = LogType.valueOf(logType.toUpperCase());
+            exportFormat = LogExportFormat.valueOf(format.toUpperCase());
+            start = DateTimeUtil.parseStart(startTime);
+            end = DateTimeUtil.parseEnd(endTime);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String fileName = "operation-log-" + type.name().toLowerCase() + "-" + afterId + exportFormat.getFileSuffix();
+        StreamingResponseBody body = out -> loggingService.exportLogs(type, start, end, exportFormat, afterId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
+}
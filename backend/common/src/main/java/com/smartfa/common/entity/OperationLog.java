@@ -1,6 +1,7 @@
 package com.smartfa.common.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.smartfa.common.enums.LogType;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -21,6 +22,12 @@ public class OperationLog extends BaseEntity {
     @TableId(value = "id", type = IdType.AUTO)
     private Long id;
 
+    /**
+     * 日志类型
+     */
+    @TableField("log_type")
+    private LogType logType;
+
     /**
      * 操作用户ID
      */
@@ -0,0 +1,37 @@
+package com.smartfa.common.enums;
+
+/**
+ * 操作日志类型枚举
+ */
+public enum LogType {
+
+    /**
+     * 操作日志
+     */
+    OPERATION("操作日志"),
+
+    /**
+     * 异常日志
+     */
+    EXCEPTION("异常日志"),
+
+    /**
+     * AI服务调用日志
+     */
+    AI_CALL("AI调用日志"),
+
+    /**
+     * 安全事件日志
+     */
+    SECURITY("安全事件日志");
+
+    private final String description;
+
+    LogType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -125,6 +125,11 @@ public enum ResultCode {
      */
     EMAIL_ALREADY_EXISTS(1011, "邮箱已存在"),
 
+    /**
+     * 登录尝试过于频繁
+     */
+    LOGIN_TOO_FREQUENT(1012, "登录尝试过于频繁，请稍后再试"),
+
     // ========== 文件相关 ==========
 
     /**
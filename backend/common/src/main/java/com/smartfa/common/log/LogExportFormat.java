@@ -0,0 +1,27 @@
+package com.smartfa.common.log;
+
+/**
+ * 日志导出格式（均为gzip压缩）
+ */
+public enum LogExportFormat {
+
+    /**
+     * 每行一个JSON对象
+     */
+    NDJSON(".ndjson.gz"),
+
+    /**
+     * 逗号分隔，首行为表头
+     */
+    CSV(".csv.gz");
+
+    private final String fileSuffix;
+
+    LogExportFormat(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartfa.common.log;
+
+/**
+ * 异步日志队列溢出策略
+ */
+public enum LogOverflowPolicy {
+
+    /**
+     * 队列满时直接丢弃
+     */
+    DROP,
+
+    /**
+     * 队列超过高水位后按采样率保留，队列满时丢弃
+     */
+    SAMPLE,
+
+    /**
+     * 队列满时短暂等待，超时后丢弃
+     */
+    BLOCK
+}
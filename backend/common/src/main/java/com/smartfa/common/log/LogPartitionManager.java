@@ -0,0 +1,259 @@
+package com.smartfa.common.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 操作日志分区与保留期管理
+ * sys_operation_log按月分区时，过期数据以DROP PARTITION整块删除，并提前创建未来月份的分区；
+ * 表未分区时退化为按主键区间分块删除，每块之间暂停，避免长事务锁表和主从延迟。
+ * 各服务都会扫描到本组件，维护时先获取MySQL命名锁，同一时刻只有一个实例执行DDL
+ */
+@Component
+public class LogPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(LogPartitionManager.class);
+
+    private static final String TABLE = "sys_operation_log";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String LOCK_NAME = "smartfa.operation-log.maintenance";
+
+    /**
+     * 是否在本服务执行定时维护
+     */
+    @Value("${operation-log.partition.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 日志保留天数
+     */
+    @Value("${operation-log.retention.days:180}")
+    private int retentionDays;
+
+    /**
+     * 提前创建的月分区数
+     */
+    @Value("${operation-log.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    /**
+     * 分块删除时每块覆盖的主键区间大小
+     */
+    @Value("${operation-log.purge.chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * 分块删除的块间暂停（毫秒）
+     */
+    @Value("${operation-log.purge.pause-ms:100}")
+    private long pauseMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 每日维护：补齐未来分区并清理过期日志
+     */
+    @Scheduled(cron = "${operation-log.partition.cron:0 30 2 * * ?}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Long deleted = runExclusively(() -> {
+                if (isPartitioned()) {
+                    ensureFuturePartitions();
+                }
+                return doPurge(retentionDays);
+            });
+            if (deleted == null) {
+                log.info("其他实例正在维护操作日志分区，跳过本次维护");
+            }
+        } catch (Exception e) {
+            log.error("操作日志分区维护失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 删除早于保留期的日志
+     *
+     * @param days 保留天数
+     * @return 分块删除的行数（整分区删除的行不计入），其他实例正在维护时返回-1
+     */
+    public long purge(int days) {
+        Long deleted = runExclusively(() -> doPurge(days));
+        return deleted != null ? deleted : -1;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    /**
+     * 确保当前月起monthsAhead个月的分区存在，通过拆分pmax创建
+     */
+    private void ensureFuturePartitions() {
+        List<Map<String, Object>> partitions = listPartitions();
+        LocalDate lastBound = null;
+        boolean hasMax = false;
+        for (Map<String, Object> partition : partitions) {
+            LocalDate bound = parseBound((String) partition.get("PARTITION_DESCRIPTION"));
+            if (bound == null) {
+                hasMax = MAX_PARTITION.equals(partition.get("PARTITION_NAME"));
+            } else if (lastBound == null || bound.isAfter(lastBound)) {
+                lastBound = bound;
+            }
+        }
+        if (!hasMax) {
+            log.warn("{} 缺少 {} 分区，跳过创建未来分区", TABLE, MAX_PARTITION);
+            return;
+        }
+
+        YearMonth target = YearMonth.now().plusMonths(monthsAhead);
+        YearMonth next = lastBound != null ? YearMonth.from(lastBound) : YearMonth.now();
+        while (!next.isAfter(target)) {
+            String name = next.format(PARTITION_NAME_FORMATTER);
+            String upper = next.plusMonths(1).atDay(1).toString();
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" +
+                    "PARTITION " + name + " VALUES LESS THAN ('" + upper + "'), " +
+                    "PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            log.info("创建操作日志分区: {} < {}", name, upper);
+            next = next.plusMonths(1);
+        }
+    }
+
+    private long doPurge(int days) {
+        LocalDateTime cutoff = LocalDate.now().minusDays(days).atStartOfDay();
+        if (isPartitioned()) {
+            dropExpiredPartitions(cutoff);
+        }
+        // 分区模式下只剩跨越cutoff的那个分区内有过期行，谓词会被裁剪到该分区
+        return deleteInChunks(cutoff);
+    }
+
+    /**
+     * 持有命名锁执行维护任务，锁绑定在回调占用的连接上，维护语句走其他连接
+     *
+     * @return 任务结果，锁已被其他实例持有时返回null
+     */
+    private <T> T runExclusively(Supplier<T> task) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            if (!acquireLock(connection)) {
+                return null;
+            }
+            try {
+                return task.get();
+            } finally {
+                releaseLock(connection);
+            }
+        });
+    }
+
+    private static boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+
+    private void dropExpiredPartitions(LocalDateTime cutoff) {
+        for (Map<String, Object> partition : listPartitions()) {
+            LocalDate bound = parseBound((String) partition.get("PARTITION_DESCRIPTION"));
+            if (bound != null && !bound.atStartOfDay().isAfter(cutoff)) {
+                String name = (String) partition.get("PARTITION_NAME");
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+                log.info("删除过期操作日志分区: {} < {}", name, bound);
+            }
+        }
+    }
+
+    /**
+     * 按主键区间分块删除create_time早于cutoff的行
+     */
+    private long deleteInChunks(LocalDateTime cutoff) {
+        Timestamp cutoffTime = Timestamp.valueOf(cutoff);
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM " + TABLE + " WHERE create_time < ?", cutoffTime);
+        if (range.get("min_id") == null) {
+            return 0;
+        }
+        long minId = ((Number) range.get("min_id")).longValue();
+        long maxId = ((Number) range.get("max_id")).longValue();
+
+        long deleted = 0;
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            int rows = jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE id >= ? AND id < ? AND create_time < ?",
+                    from, from + chunkSize, cutoffTime);
+            deleted += rows;
+            if (rows > 0 && pauseMs > 0 && from + chunkSize <= maxId) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("操作日志分块删除被中断，已删除 {} 条", deleted);
+                    return deleted;
+                }
+            }
+        }
+        log.info("分块删除过期操作日志 {} 条，cutoff={}", deleted, cutoff);
+        return deleted;
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    private List<Map<String, Object>> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION", TABLE);
+    }
+
+    /**
+     * 解析分区上界，形如'2026-11-01'或'2026-11-01 00:00:00'；MAXVALUE返回null
+     */
+    private static LocalDate parseBound(String description) {
+        if (description == null) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.isEmpty() || "MAXVALUE".equalsIgnoreCase(value)) {
+            return null;
+        }
+        return LocalDate.parse(value.substring(0, 10));
+    }
+}
@@ -0,0 +1,244 @@
+package com.smartfa.common.log;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.smartfa.common.enums.LogType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 操作日志流式导出
+ * 按主键游标（id > afterId ORDER BY id LIMIT n）分块读取，每块写成一个独立的gzip成员并flush，
+ * 内存中只保留当前行。多个gzip成员首尾相接仍是合法的gzip文件，
+ * 因此中断后可以从最后一个已完成块的id继续追加
+ */
+@Component
+public class OperationLogExporter {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] COLUMNS = {"id", "log_type", "user_id", "username", "operation", "method",
+            "params", "result", "ip", "user_agent", "execution_time", "status", "error_message", "create_time"};
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 每块读取的行数
+     */
+    @Value("${operation-log.export.chunk-size:1000}")
+    private int chunkSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 导出日志到输出流
+     *
+     * @param logType 日志类型
+     * @param startTime 开始时间（含），null表示不限
+     * @param endTime 结束时间（不含），null表示不限
+     * @param format 导出格式
+     * @param afterId 从该id之后开始导出，0表示从头导出
+     * @param out 目标流，不会被关闭
+     * @param onChunk 每块写出并flush后回调，参数为该块最后一行的id
+     * @return 最后导出的id
+     */
+    public long export(LogType logType, LocalDateTime startTime, LocalDateTime endTime, LogExportFormat format,
+                       long afterId, OutputStream out, LongConsumer onChunk) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", COLUMNS))
+                .append(" FROM sys_operation_log WHERE log_type = ? AND id > ?");
+        if (startTime != null) {
+            sql.append(" AND create_time >= ?");
+        }
+        if (endTime != null) {
+            sql.append(" AND create_time < ?");
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        String query = sql.toString();
+
+        long cursor = afterId;
+        boolean writeHeader = format == LogExportFormat.CSV && afterId == 0;
+        while (true) {
+            ChunkWriter writer = new ChunkWriter(out, format, writeHeader);
+            try {
+                jdbcTemplate.query(query, writer::writeRow, args(logType, cursor, startTime, endTime));
+                writer.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (writer.rows == 0) {
+                return cursor;
+            }
+            cursor = writer.lastId;
+            writeHeader = false;
+            if (onChunk != null) {
+                onChunk.accept(cursor);
+            }
+            if (writer.rows < chunkSize) {
+                return cursor;
+            }
+        }
+    }
+
+    private Object[] args(LogType logType, long cursor, LocalDateTime startTime, LocalDateTime endTime) {
+        List<Object> args = new ArrayList<>(5);
+        args.add(logType.name());
+        args.add(cursor);
+        if (startTime != null) {
+            args.add(Timestamp.valueOf(startTime));
+        }
+        if (endTime != null) {
+            args.add(Timestamp.valueOf(endTime));
+        }
+        args.add(chunkSize);
+        return args.toArray();
+    }
+
+    /**
+     * 单个块的gzip写出器，gzip成员在第一行到达时才开启，空块不写任何字节
+     */
+    private static final class ChunkWriter {
+
+        private final OutputStream target;
+        private final LogExportFormat format;
+        private final boolean header;
+
+        private GZIPOutputStream gzip;
+        private Writer csvWriter;
+        private JsonGenerator jsonGenerator;
+
+        private int rows;
+        private long lastId;
+
+        private ChunkWriter(OutputStream target, LogExportFormat format, boolean header) {
+            this.target = target;
+            this.format = format;
+            this.header = header;
+        }
+
+        private void writeRow(ResultSet rs) throws SQLException {
+            try {
+                if (gzip == null) {
+                    open();
+                }
+                lastId = rs.getLong("id");
+                if (format == LogExportFormat.CSV) {
+                    writeCsvRow(rs);
+                } else {
+                    writeJsonRow(rs);
+                }
+                rows++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void open() throws IOException {
+            gzip = new GZIPOutputStream(new FilterOutputStream(target) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }, 8192);
+            if (format == LogExportFormat.CSV) {
+                csvWriter = new OutputStreamWriter(gzip, StandardCharsets.UTF_8);
+                if (header) {
+                    csvWriter.write(String.join(",", COLUMNS));
+                    csvWriter.write('\n');
+                }
+            } else {
+                jsonGenerator = JSON_FACTORY.createGenerator(gzip, JsonEncoding.UTF8);
+                jsonGenerator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                // 行分隔由writeRow自己写换行，不要默认的空格分隔符
+                jsonGenerator.setRootValueSeparator(null);
+            }
+        }
+
+        private void writeJsonRow(ResultSet rs) throws SQLException, IOException {
+            jsonGenerator.writeStartObject();
+            for (String column : COLUMNS) {
+                Object value = rs.getObject(column);
+                jsonGenerator.writeFieldName(column);
+                if (value == null) {
+                    jsonGenerator.writeNull();
+                } else if (value instanceof Number number) {
+                    jsonGenerator.writeNumber(number.longValue());
+                } else {
+                    jsonGenerator.writeString(format(value));
+                }
+            }
+            jsonGenerator.writeEndObject();
+            jsonGenerator.writeRaw('\n');
+        }
+
+        private void writeCsvRow(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    csvWriter.write(',');
+                }
+                Object value = rs.getObject(COLUMNS[i]);
+                if (value != null) {
+                    csvWriter.write(escapeCsv(format(value)));
+                }
+            }
+            csvWriter.write('\n');
+        }
+
+        private void finish() throws IOException {
+            if (gzip == null) {
+                return;
+            }
+            if (jsonGenerator != null) {
+                jsonGenerator.close();
+            }
+            if (csvWriter != null) {
+                csvWriter.flush();
+            }
+            // 关闭gzip会释放Deflater，包装流的close只做flush，不会关闭目标流
+            gzip.close();
+        }
+
+        private static String format(Object value) {
+            if (value instanceof Timestamp timestamp) {
+                return timestamp.toLocalDateTime().format(TIME_FORMATTER);
+            }
+            if (value instanceof LocalDateTime time) {
+                return time.format(TIME_FORMATTER);
+            }
+            return value.toString();
+        }
+
+        private static String escapeCsv(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.smartfa.common.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartfa.common.concurrent.LockFreeRingBuffer;
+import com.smartfa.common.entity.OperationLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作日志异步批量写入器
+ * 调用方只把日志放入无锁环形队列，由单个后台线程批量取出并用JDBC批量插入sys_operation_log，
+ * 审计日志不会给请求路径增加数据库延迟。MySQL需在连接串中开启rewriteBatchedStatements=true
+ * 才能把批量插入合并为多值INSERT
+ */
+@Component
+public class OperationLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(OperationLogWriter.class);
+
+    /**
+     * 写入失败或不完整而丢失的日志行，每行为完整日志的JSON
+     */
+    private static final Logger LOST_LOG = LoggerFactory.getLogger("operation-log.lost");
+
+    private static final String INSERT_SQL = "INSERT INTO sys_operation_log " +
+            "(log_type, user_id, username, operation, method, params, result, ip, user_agent, " +
+            "execution_time, status, error_message, create_time) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 队列容量
+     */
+    @Value("${operation-log.async.capacity:8192}")
+    private int capacity;
+
+    /**
+     * 单次批量插入的最大行数
+     */
+    @Value("${operation-log.async.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 队列为空时消费线程的休眠间隔（毫秒）
+     */
+    @Value("${operation-log.async.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    /**
+     * 溢出策略：DROP/SAMPLE/BLOCK
+     */
+    @Value("${operation-log.async.overflow-policy:DROP}")
+    private LogOverflowPolicy overflowPolicy;
+
+    /**
+     * SAMPLE策略下超过高水位（75%）后保留的比例
+     */
+    @Value("${operation-log.async.sample-rate:0.1}")
+    private double sampleRate;
+
+    /**
+     * BLOCK策略下的最长等待时间（毫秒）
+     */
+    @Value("${operation-log.async.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private LockFreeRingBuffer<OperationLog> queue;
+    private int highWaterMark;
+
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter sampledOutCounter;
+    private Counter failedCounter;
+    private Counter invalidCounter;
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    @PostConstruct
+    public void start() {
+        queue = new LockFreeRingBuffer<>(capacity);
+        highWaterMark = queue.capacity() * 3 / 4;
+
+        Gauge.builder("operation.log.queue.depth", queue, LockFreeRingBuffer::size)
+                .description("异步操作日志队列深度")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("operation.log.written").register(meterRegistry);
+        droppedCounter = Counter.builder("operation.log.dropped").tag("reason", "overflow").register(meterRegistry);
+        sampledOutCounter = Counter.builder("operation.log.dropped").tag("reason", "sampled").register(meterRegistry);
+        failedCounter = Counter.builder("operation.log.dropped").tag("reason", "write_error").register(meterRegistry);
+        invalidCounter = Counter.builder("operation.log.dropped").tag("reason", "invalid").register(meterRegistry);
+
+        running = true;
+        consumer = new Thread(this::consumeLoop, "operation-log-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * 提交一条日志，不会阻塞调用方（BLOCK策略除外，最多等待block-timeout-ms）。
+     * 入队前校验必填列：缺少日志类型的日志直接丢弃并记入丢失日志，缺少操作时间时取当前时间，
+     * 避免单条坏数据在批量插入时拖垮整批
+     *
+     * @return 是否进入队列
+     */
+    public boolean submit(OperationLog operationLog) {
+        if (operationLog.getLogType() == null) {
+            invalidCounter.increment();
+            log.warn("操作日志缺少日志类型，已丢弃: {}", operationLog.getOperationType());
+            logLost(operationLog);
+            return false;
+        }
+        if (operationLog.getOperationTime() == null) {
+            operationLog.setOperationTime(LocalDateTime.now());
+        }
+        switch (overflowPolicy) {
+            case SAMPLE:
+                if (queue.size() >= highWaterMark && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                    sampledOutCounter.increment();
+                    return false;
+                }
+                return offerOrDrop(operationLog);
+            case BLOCK:
+                return offerBlocking(operationLog);
+            case DROP:
+            default:
+                return offerOrDrop(operationLog);
+        }
+    }
+
+    /**
+     * 当前队列深度
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * 因批量写入失败而丢失的日志条数
+     */
+    public long getFailedCount() {
+        return (long) failedCounter.count();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offerOrDrop(OperationLog operationLog) {
+        if (queue.offer(operationLog)) {
+            return true;
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    private boolean offerBlocking(OperationLog operationLog) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        while (!queue.offer(operationLog)) {
+            if (System.nanoTime() - deadline >= 0) {
+                droppedCounter.increment();
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        return true;
+    }
+
+    private void consumeLoop() {
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            batch.clear();
+            if (queue.drainTo(batch, batchSize) == 0) {
+                if (running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                }
+                continue;
+            }
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<OperationLog> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, item) -> {
+                ps.setString(1, item.getLogType().name());
+                if (item.getUserId() != null) {
+                    ps.setLong(2, item.getUserId());
+                } else {
+                    ps.setNull(2, Types.BIGINT);
+                }
+                ps.setString(3, truncate(item.getUsername(), 50));
+                ps.setString(4, truncate(item.getOperationType(), 100));
+                ps.setString(5, truncate(item.getMethod(), 200));
+                ps.setString(6, item.getRequestParams());
+                ps.setString(7, item.getResponseResult());
+                ps.setString(8, truncate(item.getIpAddress(), 50));
+                ps.setString(9, truncate(item.getUserAgent(), 500));
+                if (item.getExecutionTime() != null) {
+                    ps.setLong(10, item.getExecutionTime());
+                } else {
+                    ps.setNull(10, Types.BIGINT);
+                }
+                ps.setInt(11, item.getStatus() != null ? item.getStatus() : 1);
+                ps.setString(12, truncate(item.getErrorMessage(), 1000));
+                ps.setTimestamp(13, Timestamp.valueOf(item.getOperationTime()));
+            });
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("批量写入操作日志失败，丢弃 {} 条", batch.size(), e);
+            // 丢失的行逐条写入应用日志，必要时可据此补录
+            batch.forEach(this::logLost);
+        }
+    }
+
+    private void logLost(OperationLog item) {
+        String row;
+        try {
+            row = objectMapper.writeValueAsString(item);
+        } catch (Exception e) {
+            row = item.toString();
+        }
+        LOST_LOG.warn("{}", row);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+}
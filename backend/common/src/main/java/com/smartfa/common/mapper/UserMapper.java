@@ -43,6 +43,17 @@ public interface UserMapper extends BaseMapper<User> {
             "WHERE ur.user_id = #{userId} AND r.status = 1")
     List<User> findUserRoles(@Param("userId") Long userId);
 
+    /**
+     * 查询用户已启用角色的编码
+     *
+     * @param userId 用户ID
+     * @return 角色编码列表
+     */
+    @Select("SELECT r.role_code FROM sys_role r " +
+            "INNER JOIN sys_user_role ur ON r.id = ur.role_id " +
+            "WHERE ur.user_id = #{userId} AND r.status = 1")
+    List<String> findRoleCodes(@Param("userId") Long userId);
+
     /**
      * 根据角色查询用户列表
      *
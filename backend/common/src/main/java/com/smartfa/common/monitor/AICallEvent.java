@@ -0,0 +1,25 @@
+package com.smartfa.common.monitor;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * AI服务调用JFR事件，附带@AIMonitor的服务名与操作类型
+ */
+@Name("com.smartfa.AICall")
+@Label("AI Call")
+@Description("SmartFA @AIMonitor annotated AI service call")
+public class AICallEvent extends BoundaryEvent {
+
+    @Label("Service Name")
+    String serviceName;
+
+    @Label("Operation")
+    String operation;
+
+    public void setAIService(String serviceName, String operation) {
+        this.serviceName = serviceName;
+        this.operation = operation;
+    }
+}
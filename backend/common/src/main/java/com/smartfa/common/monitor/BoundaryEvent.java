@@ -0,0 +1,37 @@
+package com.smartfa.common.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * 调用边界JFR事件基类
+ * 字段在shouldCommit()之后才赋值，未开启录制时不产生额外开销
+ */
+@Category({"SmartFA", "Method"})
+@StackTrace(false)
+public abstract class BoundaryEvent extends Event {
+
+    @Label("Class")
+    String className;
+
+    @Label("Method")
+    String methodName;
+
+    @Label("Layer")
+    String layer;
+
+    @Label("Status")
+    String status;
+
+    /**
+     * 设置调用边界信息
+     */
+    public void setBoundary(String className, String methodName, String layer, boolean success) {
+        this.className = className;
+        this.methodName = methodName;
+        this.layer = layer;
+        this.status = success ? "success" : "error";
+    }
+}
@@ -0,0 +1,193 @@
+package com.smartfa.common.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢调用飞行记录器
+ * 每个线程持有一个预分配的Span缓冲区，记录一次顶层调用内嵌套的controller/service/mapper调用；
+ * 只有顶层调用超过阈值时才生成调用树快照，并保留最近N条
+ */
+@Component
+public class CallTreeRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(CallTreeRecorder.class);
+
+    /**
+     * 记录器未启用，exit时不做任何处理
+     */
+    public static final int NOT_RECORDING = -2;
+
+    /**
+     * 缓冲区已满，Span未记录但层级仍需维护
+     */
+    public static final int DROPPED = -1;
+
+    @Value("${monitoring.call-tree.enabled:true}")
+    private boolean enabled;
+
+    @Value("${monitoring.call-tree.threshold-ms:${monitoring.slow-threshold-ms:1000}}")
+    private long thresholdMs;
+
+    @Value("${monitoring.call-tree.max-spans:256}")
+    private int maxSpans;
+
+    @Value("${monitoring.call-tree.retained:50}")
+    private int retained;
+
+    private final ThreadLocal<SpanBuffer> buffers = ThreadLocal.withInitial(() -> new SpanBuffer(maxSpans));
+
+    private final Deque<SlowCallTrace> recentTraces = new ArrayDeque<>();
+
+    /**
+     * 进入一个Span
+     *
+     * @param layer 调用层
+     * @param startNanos 开始时间（System.nanoTime）
+     * @return Span序号，exit时传回
+     */
+    public int enter(String layer, long startNanos) {
+        if (!enabled) {
+            return NOT_RECORDING;
+        }
+        SpanBuffer buffer = buffers.get();
+        if (buffer.depth == 0) {
+            buffer.reset(startNanos);
+        }
+        int depth = buffer.depth++;
+        if (buffer.size == buffer.capacity) {
+            buffer.dropped++;
+            return DROPPED;
+        }
+        int index = buffer.size++;
+        buffer.layers[index] = layer;
+        buffer.depths[index] = depth;
+        buffer.starts[index] = startNanos;
+        return index;
+    }
+
+    /**
+     * 退出一个Span，顶层调用结束且超过阈值时生成快照
+     *
+     * @param index enter返回的Span序号
+     * @param name 调用名称
+     * @param elapsedNanos 耗时（纳秒）
+     * @param success 是否成功
+     */
+    public void exit(int index, String name, long elapsedNanos, boolean success) {
+        if (index == NOT_RECORDING) {
+            return;
+        }
+        SpanBuffer buffer = buffers.get();
+        if (index >= 0) {
+            buffer.names[index] = name;
+            buffer.durations[index] = elapsedNanos;
+            buffer.successes[index] = success;
+        }
+        if (--buffer.depth > 0) {
+            return;
+        }
+        buffer.depth = 0;
+        if (TimeUnit.NANOSECONDS.toMillis(elapsedNanos) > thresholdMs) {
+            capture(buffer, name, elapsedNanos);
+        }
+        buffer.clearReferences();
+    }
+
+    /**
+     * 获取最近的慢调用树（最新的在前）
+     */
+    public List<SlowCallTrace> getRecentTraces() {
+        synchronized (recentTraces) {
+            return new ArrayList<>(recentTraces);
+        }
+    }
+
+    /**
+     * 清空已保留的慢调用树
+     */
+    public void clear() {
+        synchronized (recentTraces) {
+            recentTraces.clear();
+        }
+    }
+
+    private void capture(SpanBuffer buffer, String rootName, long rootNanos) {
+        List<SlowCallTrace.Span> spans = new ArrayList<>(buffer.size);
+        for (int i = 0; i < buffer.size; i++) {
+            spans.add(new SlowCallTrace.Span(
+                    buffer.names[i],
+                    buffer.layers[i],
+                    buffer.depths[i],
+                    toMillis(buffer.starts[i] - buffer.rootStartNanos),
+                    toMillis(buffer.durations[i]),
+                    buffer.successes[i]));
+        }
+        long startTime = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(rootNanos);
+        SlowCallTrace trace = new SlowCallTrace(rootName, Thread.currentThread().getName(),
+                startTime, toMillis(rootNanos), buffer.dropped, spans);
+
+        synchronized (recentTraces) {
+            recentTraces.addFirst(trace);
+            while (recentTraces.size() > retained) {
+                recentTraces.removeLast();
+            }
+        }
+        log.warn("Captured slow call tree: {} took {} ms with {} spans ({} dropped)",
+                rootName, trace.getDurationMs(), spans.size(), buffer.dropped);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * 线程内预分配的Span缓冲区
+     */
+    private static final class SpanBuffer {
+
+        private final int capacity;
+        private final String[] names;
+        private final String[] layers;
+        private final int[] depths;
+        private final long[] starts;
+        private final long[] durations;
+        private final boolean[] successes;
+
+        private int size;
+        private int depth;
+        private int dropped;
+        private long rootStartNanos;
+
+        private SpanBuffer(int capacity) {
+            this.capacity = capacity;
+            this.names = new String[capacity];
+            this.layers = new String[capacity];
+            this.depths = new int[capacity];
+            this.starts = new long[capacity];
+            this.durations = new long[capacity];
+            this.successes = new boolean[capacity];
+        }
+
+        private void reset(long startNanos) {
+            size = 0;
+            dropped = 0;
+            rootStartNanos = startNanos;
+        }
+
+        private void clearReferences() {
+            for (int i = 0; i < size; i++) {
+                names[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.smartfa.common.monitor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * JFR领域事件开关Actuator端点
+ * GET /actuator/jfrevents 查看状态，POST {"enabled": true|false} 切换（仅限ADMIN）
+ */
+@Component
+@Endpoint(id = "jfrevents")
+public class JfrEventEndpoint {
+
+    @Autowired
+    private JfrEventSwitch jfrEventSwitch;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of("enabled", jfrEventSwitch.isEnabled());
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(boolean enabled) {
+        jfrEventSwitch.setEnabled(enabled);
+        return status();
+    }
+}
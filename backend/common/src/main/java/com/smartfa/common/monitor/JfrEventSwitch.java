@@ -0,0 +1,26 @@
+package com.smartfa.common.monitor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * JFR领域事件运行时开关
+ * 关闭时切面不创建事件对象；开启时是否真正写入仍由JFR录制配置决定
+ */
+@Component
+public class JfrEventSwitch {
+
+    private volatile boolean enabled;
+
+    public JfrEventSwitch(@Value("${monitoring.jfr.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
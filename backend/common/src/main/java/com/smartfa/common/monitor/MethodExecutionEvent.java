@@ -0,0 +1,14 @@
+package com.smartfa.common.monitor;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Controller/Service/Mapper方法执行JFR事件
+ */
+@Name("com.smartfa.MethodExecution")
+@Label("Method Execution")
+@Description("SmartFA controller/service/repository method boundary")
+public class MethodExecutionEvent extends BoundaryEvent {
+}
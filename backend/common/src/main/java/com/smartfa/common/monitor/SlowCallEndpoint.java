@@ -0,0 +1,31 @@
+package com.smartfa.common.monitor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 慢调用树Actuator端点
+ * GET /actuator/slowcalls 查看最近的慢调用树，DELETE 清空（仅限ADMIN）
+ */
+@Component
+@Endpoint(id = "slowcalls")
+public class SlowCallEndpoint {
+
+    @Autowired
+    private CallTreeRecorder callTreeRecorder;
+
+    @ReadOperation
+    public List<SlowCallTrace> slowCalls() {
+        return callTreeRecorder.getRecentTraces();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        callTreeRecorder.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartfa.common.monitor;
+
+import java.util.List;
+
+/**
+ * 慢调用调用树快照
+ * 以先序排列的Span列表表示，depth为嵌套层级（根为0）
+ */
+public class SlowCallTrace {
+
+    /**
+     * 根调用名称（layer.Class.method）
+     */
+    private final String rootName;
+
+    /**
+     * 执行线程
+     */
+    private final String threadName;
+
+    /**
+     * 根调用开始时间（epoch毫秒）
+     */
+    private final long startTime;
+
+    /**
+     * 根调用总耗时（毫秒）
+     */
+    private final double durationMs;
+
+    /**
+     * 因缓冲区已满未记录的Span数量
+     */
+    private final int droppedSpans;
+
+    /**
+     * 调用树中的所有Span
+     */
+    private final List<Span> spans;
+
+    public SlowCallTrace(String rootName, String threadName, long startTime, double durationMs,
+                         int droppedSpans, List<Span> spans) {
+        this.rootName = rootName;
+        this.threadName = threadName;
+        this.startTime = startTime;
+        this.durationMs = durationMs;
+        this.droppedSpans = droppedSpans;
+        this.spans = spans;
+    }
+
+    public String getRootName() {
+        return rootName;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public double getDurationMs() {
+        return durationMs;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    /**
+     * 调用树中的单个Span
+     */
+    public static class Span {
+
+        private final String name;
+        private final String layer;
+        private final int depth;
+        private final double offsetMs;
+        private final double durationMs;
+        private final boolean success;
+
+        public Span(String name, String layer, int depth, double offsetMs, double durationMs, boolean success) {
+            this.name = name;
+            this.layer = layer;
+            this.depth = depth;
+            this.offsetMs = offsetMs;
+            this.durationMs = durationMs;
+            this.success = success;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getLayer() {
+            return layer;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * 相对根调用开始的偏移（毫秒）
+         */
+        public double getOffsetMs() {
+            return offsetMs;
+        }
+
+        public double getDurationMs() {
+            return durationMs;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+    }
+}
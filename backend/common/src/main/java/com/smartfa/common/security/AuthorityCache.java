@@ -0,0 +1,54 @@
+package com.smartfa.common.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.smartfa.common.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户权限缓存
+ * 用于签发Token时写入权限声明，以及不带权限声明的旧Token鉴权；
+ * 用户角色变更时由TokenRevocationService.revokeUserTokens在所有实例上清除
+ */
+@Component
+public class AuthorityCache {
+
+    @Value("${security.authority-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${security.authority-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private LoadingCache<Long, List<String>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build(userId -> List.copyOf(userMapper.findRoleCodes(userId)));
+    }
+
+    /**
+     * 获取用户权限（角色编码）
+     */
+    public List<String> getAuthorities(Long userId) {
+        return cache.get(userId);
+    }
+
+    /**
+     * 用户角色变更后清除缓存
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartfa.common.security;
+
+import com.smartfa.common.service.TokenRevocationService;
+import com.smartfa.common.util.JwtUtil;
+import com.smartfa.common.util.TokenClaims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * JWT认证过滤器
+ * 从Authorization头解析Token并写入SecurityContext，权限优先取自Token声明，
+ * 只有旧Token才会查询AuthorityCache，正常请求不访问数据库。
+ * 不注册为Spring Bean，由SecurityConfig加入过滤器链，避免被Servlet容器重复注册
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthorityCache authorityCache;
+
+    public JwtAuthenticationFilter(TokenRevocationService tokenRevocationService, AuthorityCache authorityCache) {
+        this.tokenRevocationService = tokenRevocationService;
+        this.authorityCache = authorityCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            TokenClaims claims = JwtUtil.parseToken(header.substring(BEARER_PREFIX.length()));
+            if (claims != null && !tokenRevocationService.isRevoked(claims)) {
+                List<String> authorities = claims.authorities() != null
+                        ? claims.authorities()
+                        : authorityCache.getAuthorities(claims.userId());
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        claims.username(), null,
+                        authorities.stream().map(SimpleGrantedAuthority::new).toList());
+                authentication.setDetails(claims);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,105 @@
+package com.smartfa.common.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最后登录时间记录器
+ * 登录成功只在内存中记录时间，同一用户多次登录合并为最新的一次；
+ * 定时用一条UPDATE ... CASE语句批量更新sys_user.update_time，登录路径上不再写库、不再持有行锁
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    /**
+     * 单条UPDATE语句最多包含的用户数
+     */
+    @Value("${login.last-login.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录用户登录时间
+     */
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, latest) -> latest.isAfter(current) ? latest : current);
+    }
+
+    /**
+     * 待写入的用户数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 批量写入已记录的登录时间
+     */
+    @Scheduled(fixedDelayString = "${login.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            // 只有值未被并发更新时才移除，新值留到下一轮
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<Map.Entry<Long, LocalDateTime>> batch) {
+        StringBuilder sql = new StringBuilder("UPDATE sys_user SET update_time = CASE id");
+        List<Object> args = new ArrayList<>(batch.size() * 3);
+        for (Map.Entry<Long, LocalDateTime> entry : batch) {
+            sql.append(" WHEN ? THEN ?");
+            args.add(entry.getKey());
+            args.add(Timestamp.valueOf(entry.getValue()));
+        }
+        sql.append(" ELSE update_time END WHERE id IN (");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args.add(batch.get(i).getKey());
+        }
+        sql.append(')');
+
+        try {
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        } catch (Exception e) {
+            log.warn("批量更新最后登录时间失败，{} 个用户留待下次写入: {}", batch.size(), e.getMessage());
+            batch.forEach(entry -> record(entry.getKey(), entry.getValue()));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartfa.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录限流
+ * 按用户名限制连续失败次数，可选按IP限制时间窗口内的登录尝试次数；
+ * 被限流的请求在进入BCrypt校验之前就被拒绝
+ */
+@Component
+public class LoginRateLimiter {
+
+    /**
+     * 计数窗口（秒），从窗口内第一次计数开始
+     */
+    @Value("${login.rate-limit.window-seconds:60}")
+    private long windowSeconds;
+
+    /**
+     * 单个用户在窗口内允许的失败次数
+     */
+    @Value("${login.rate-limit.max-failures-per-user:5}")
+    private int maxFailuresPerUser;
+
+    /**
+     * 单个IP在窗口内允许的登录尝试次数，0表示不按IP限流。
+     * 部署在反向代理之后时需同时配置server.forward-headers-strategy，否则所有请求都会计入代理的IP
+     */
+    @Value("${login.rate-limit.max-attempts-per-ip:0}")
+    private int maxAttemptsPerIp;
+
+    private Cache<String, AtomicInteger> userFailures;
+    private Cache<String, AtomicInteger> ipAttempts;
+
+    @PostConstruct
+    public void init() {
+        userFailures = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(windowSeconds, TimeUnit.SECONDS)
+                .build();
+        ipAttempts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(windowSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 记录一次登录尝试并判断是否应被限流
+     *
+     * @param username 用户名
+     * @param ip 客户端IP，可为空
+     * @return 是否超出限制
+     */
+    public boolean isLimited(String username, String ip) {
+        if (maxAttemptsPerIp > 0 && ip != null
+                && ipAttempts.get(ip, key -> new AtomicInteger()).incrementAndGet() > maxAttemptsPerIp) {
+            return true;
+        }
+        AtomicInteger failures = username != null ? userFailures.getIfPresent(username) : null;
+        return failures != null && failures.get() >= maxFailuresPerUser;
+    }
+
+    /**
+     * 记录一次登录失败
+     */
+    public void recordFailure(String username) {
+        if (username != null) {
+            userFailures.get(username, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * 登录成功后清除该用户的失败计数
+     */
+    public void recordSuccess(String username) {
+        if (username != null) {
+            userFailures.invalidate(username);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.smartfa.common.security;
+
+import com.smartfa.common.enums.ResultCode;
+import com.smartfa.common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 密码哈希执行器
+ * BCrypt计算在固定大小、有界队列的专用线程池中执行，请求线程只等待结果；
+ * 队列满时立即以SYSTEM_BUSY(429)拒绝，登录风暴不会占满Web容器线程
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    /**
+     * 线程数，0表示CPU核数
+     */
+    @Value("${password.hash.pool-size:0}")
+    private int poolSize;
+
+    /**
+     * 等待队列容量
+     */
+    @Value("${password.hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * 请求线程等待结果的最长时间（毫秒）
+     */
+    @Value("${password.hash.timeout-ms:3000}")
+    private long timeoutMs;
+
+    /**
+     * BCrypt强度，旧哈希强度低于该值时登录成功后自动升级
+     */
+    @Value("${password.bcrypt.strength:10}")
+    private int strength;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        encoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("密码哈希等待队列深度")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("password.hash.rejected").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验密码
+     *
+     * @throws BusinessException 线程池已满或等待超时时抛出SYSTEM_BUSY
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return call(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 加密密码
+     *
+     * @throws BusinessException 线程池已满或等待超时时抛出SYSTEM_BUSY
+     */
+    public String encode(String rawPassword) {
+        return call(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * 旧哈希强度低于配置值时在后台重新加密，线程池繁忙时跳过，等下次登录再升级
+     *
+     * @param rawPassword 已校验通过的原始密码
+     * @param encodedPassword 当前哈希
+     * @param store 保存新哈希
+     */
+    public void upgradeIfNeeded(String rawPassword, String encodedPassword, Consumer<String> store) {
+        if (!encoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    store.accept(encoder.encode(rawPassword));
+                } catch (Exception e) {
+                    log.warn("升级密码哈希失败: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("密码哈希线程池繁忙，跳过哈希升级");
+        }
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new BusinessException(ResultCode.SYSTEM_BUSY);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new BusinessException(ResultCode.SYSTEM_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.SYSTEM_BUSY);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.smartfa.common.service;
 
 import com.smartfa.common.entity.OperationLog;
+import com.smartfa.common.enums.LogType;
+import com.smartfa.common.log.LogExportFormat;
 import com.smartfa.common.vo.Result;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -110,7 +116,7 @@ public interface LoggingService {
     /**
      * 清理过期日志
      *
-     * @param days 保留天数
+     * @param days 保留天数，为null时使用配置的保留期
      */
     void cleanExpiredLogs(Integer days);
 
@@ -123,4 +129,18 @@ public interface LoggingService {
      * @return 导出文件路径
      */
     String exportLogs(String logType, String startTime, String endTime);
-}
\ No newline at end of file
+
+    /**
+     * 流式导出日志（gzip压缩）
+     *
+     * @param logType 日志类型
+     * @param startTime 开始时间（含），为null时不限
+     * @param endTime 结束时间（不含），为null时不限
+     * @param format 导出格式
+     * @param afterId 从该日志ID之后继续导出，用于断点续传
+     * @param out 输出流
+     * @return 最后导出的日志ID
+     */
+    long exportLogs(LogType logType, LocalDateTime startTime, LocalDateTime endTime, LogExportFormat format,
+                    long afterId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,32 @@
+package com.smartfa.common.service;
+
+import com.smartfa.common.util.TokenClaims;
+
+/**
+ * Token吊销服务接口
+ */
+public interface TokenRevocationService {
+
+    /**
+     * 吊销Token，保留到Token自然过期为止
+     *
+     * @param claims 已验证的Token声明
+     */
+    void revoke(TokenClaims claims);
+
+    /**
+     * 吊销用户此前签发的全部Token，并通知所有实例清除该用户的权限缓存；
+     * 用户角色变更或被禁用时调用，Token中的权限声明随之失效
+     *
+     * @param userId 用户ID
+     */
+    void revokeUserTokens(Long userId);
+
+    /**
+     * 判断Token是否已被吊销（单个Token被吊销，或签发于用户级吊销之前）
+     *
+     * @param claims 已验证的Token声明
+     * @return 是否已吊销
+     */
+    boolean isRevoked(TokenClaims claims);
+}
@@ -36,6 +36,16 @@ public interface UserService extends IService<User> {
      */
     Result<String> login(String username, String password);
 
+    /**
+     * 用户登录（按客户端IP限流）
+     *
+     * @param username 用户名
+     * @param password 密码
+     * @param ip 客户端IP
+     * @return 登录结果
+     */
+    Result<String> login(String username, String password, String ip);
+
     /**
      * 创建用户
      *
@@ -0,0 +1,297 @@
+package com.smartfa.common.service.impl;
+
+import com.smartfa.common.entity.OperationLog;
+import com.smartfa.common.enums.LogType;
+import com.smartfa.common.enums.ResultCode;
+import com.smartfa.common.exception.BusinessException;
+import com.smartfa.common.log.LogExportFormat;
+import com.smartfa.common.log.LogPartitionManager;
+import com.smartfa.common.log.OperationLogExporter;
+import com.smartfa.common.log.OperationLogWriter;
+import com.smartfa.common.service.LoggingService;
+import com.smartfa.common.util.DateTimeUtil;
+import com.smartfa.common.vo.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日志服务实现类
+ * 写入全部交给OperationLogWriter异步批量落库，调用方线程不访问数据库
+ */
+@Service
+public class LoggingServiceImpl implements LoggingService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingServiceImpl.class);
+
+    private static final String SELECT_COLUMNS = "SELECT id, log_type, user_id, username, operation, method, params, " +
+            "result, ip, user_agent, execution_time, status, error_message, create_time FROM sys_operation_log";
+
+    private static final RowMapper<OperationLog> ROW_MAPPER = (rs, rowNum) -> {
+        OperationLog operationLog = new OperationLog();
+        operationLog.setId(rs.getLong("id"));
+        operationLog.setLogType(LogType.valueOf(rs.getString("log_type")));
+        long userId = rs.getLong("user_id");
+        operationLog.setUserId(rs.wasNull() ? null : userId);
+        operationLog.setUsername(rs.getString("username"));
+        operationLog.setOperationType(rs.getString("operation"));
+        operationLog.setMethod(rs.getString("method"));
+        operationLog.setRequestParams(rs.getString("params"));
+        operationLog.setResponseResult(rs.getString("result"));
+        operationLog.setIpAddress(rs.getString("ip"));
+        operationLog.setUserAgent(rs.getString("user_agent"));
+        long executionTime = rs.getLong("execution_time");
+        operationLog.setExecutionTime(rs.wasNull() ? null : executionTime);
+        operationLog.setStatus(rs.getInt("status"));
+        operationLog.setErrorMessage(rs.getString("error_message"));
+        Timestamp createTime = rs.getTimestamp("create_time");
+        operationLog.setOperationTime(createTime != null ? createTime.toLocalDateTime() : null);
+        return operationLog;
+    };
+
+    /**
+     * 日志导出目录
+     */
+    @Value("${operation-log.export.dir:${java.io.tmpdir}/smartfa-log-export}")
+    private String exportDir;
+
+    /**
+     * 导出文件格式
+     */
+    @Value("${operation-log.export.format:NDJSON}")
+    private LogExportFormat exportFormat;
+
+    @Autowired
+    private OperationLogWriter operationLogWriter;
+
+    @Autowired
+    private OperationLogExporter operationLogExporter;
+
+    @Autowired
+    private LogPartitionManager logPartitionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void logOperation(Long userId, String username, String operation, String method,
+                             String params, String result, String ip, String userAgent, Long executionTime) {
+        OperationLog operationLog = newLog(LogType.OPERATION, userId, username, operation);
+        operationLog.setMethod(method);
+        operationLog.setRequestParams(params);
+        operationLog.setResponseResult(result);
+        operationLog.setIpAddress(ip);
+        operationLog.setUserAgent(userAgent);
+        operationLog.setExecutionTime(executionTime);
+        operationLog.setStatus(1);
+        operationLogWriter.submit(operationLog);
+    }
+
+    @Override
+    public void logException(Long userId, String username, String operation, Exception exception, String params) {
+        OperationLog operationLog = newLog(LogType.EXCEPTION, userId, username, operation);
+        operationLog.setRequestParams(params);
+        operationLog.setStatus(0);
+        operationLog.setErrorMessage(exception != null ? exception.toString() : null);
+        operationLogWriter.submit(operationLog);
+    }
+
+    @Override
+    public void logAICall(String serviceName, String operation, String input, String output,
+                          Long executionTime, boolean success) {
+        OperationLog operationLog = newLog(LogType.AI_CALL, null, null, operation);
+        operationLog.setMethod(serviceName);
+        operationLog.setRequestParams(input);
+        operationLog.setResponseResult(output);
+        operationLog.setExecutionTime(executionTime);
+        operationLog.setStatus(success ? 1 : 0);
+        operationLogWriter.submit(operationLog);
+    }
+
+    @Override
+    public void logSecurityEvent(Long userId, String username, String eventType,
+                                 String description, String ip, String userAgent) {
+        OperationLog operationLog = newLog(LogType.SECURITY, userId, username, eventType);
+        operationLog.setResponseResult(description);
+        operationLog.setIpAddress(ip);
+        operationLog.setUserAgent(userAgent);
+        operationLog.setStatus(1);
+        operationLogWriter.submit(operationLog);
+    }
+
+    @Override
+    public Result<List<OperationLog>> queryOperationLogs(Long userId, String operation,
+                                                         String startTime, String endTime,
+                                                         Integer page, Integer size) {
+        return Result.success(queryLogs(LogType.OPERATION, userId, null, operation, startTime, endTime, page, size));
+    }
+
+    @Override
+    public Result<List<OperationLog>> queryExceptionLogs(Long userId, String operation,
+                                                        String startTime, String endTime,
+                                                        Integer page, Integer size) {
+        return Result.success(queryLogs(LogType.EXCEPTION, userId, null, operation, startTime, endTime, page, size));
+    }
+
+    @Override
+    public Result<List<OperationLog>> queryAICallLogs(String serviceName, String operation,
+                                                      String startTime, String endTime,
+                                                      Integer page, Integer size) {
+        return Result.success(queryLogs(LogType.AI_CALL, null, serviceName, operation, startTime, endTime, page, size));
+    }
+
+    @Override
+    public void cleanExpiredLogs(Integer days) {
+        if (days != null && days <= 0) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "保留天数必须大于0");
+        }
+        int retentionDays = days != null ? days : logPartitionManager.getRetentionDays();
+        long deleted = logPartitionManager.purge(retentionDays);
+        if (deleted < 0) {
+            throw new BusinessException(ResultCode.SYSTEM_BUSY, "日志维护正在进行，请稍后重试");
+        }
+        log.info("清理过期日志完成，保留 {} 天，分块删除 {} 条", retentionDays, deleted);
+    }
+
+    /**
+     * 导出到本地文件。导出过程中在同名.cursor文件记录已完成块的最后ID和文件长度，
+     * 中断后以相同参数再次调用会截掉未完成的块并从该ID继续追加
+     */
+    @Override
+    public String exportLogs(String logType, String startTime, String endTime) {
+        LogType type = parseLogType(logType);
+        LocalDateTime start = DateTimeUtil.parseStart(startTime);
+        LocalDateTime end = DateTimeUtil.parseEnd(endTime);
+
+        Path dir = Paths.get(exportDir);
+        String baseName = "operation-log-" + type.name().toLowerCase() + "-" + fileToken(startTime) + "-" + fileToken(endTime);
+        Path file = dir.resolve(baseName + exportFormat.getFileSuffix());
+        Path cursorFile = dir.resolve(baseName + ".cursor");
+
+        try {
+            Files.createDirectories(dir);
+            long[] cursor = readCursor(cursorFile);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(cursor[1]);
+                channel.position(cursor[1]);
+                OutputStream out = Channels.newOutputStream(channel);
+                long lastId = operationLogExporter.export(type, start, end, exportFormat, cursor[0], out,
+                        id -> writeCursor(cursorFile, id, channel));
+                log.info("日志导出完成: {}, lastId={}", file, lastId);
+            }
+            Files.deleteIfExists(cursorFile);
+            return file.toString();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("日志导出失败: {}", file, e);
+            throw new BusinessException(ResultCode.SYSTEM_ERROR, "日志导出失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long exportLogs(LogType logType, LocalDateTime startTime, LocalDateTime endTime, LogExportFormat format,
+                           long afterId, OutputStream out) throws IOException {
+        return operationLogExporter.export(logType, startTime, endTime,
+                format != null ? format : exportFormat, afterId, out, null);
+    }
+
+    private OperationLog newLog(LogType logType, Long userId, String username, String operation) {
+        OperationLog operationLog = new OperationLog();
+        operationLog.setLogType(logType);
+        operationLog.setUserId(userId);
+        operationLog.setUsername(username);
+        operationLog.setOperationType(operation);
+        operationLog.setOperationTime(LocalDateTime.now());
+        return operationLog;
+    }
+
+    /**
+     * 时间条件直接作用在create_time列上（不包函数），分区表上只会扫描区间覆盖的分区
+     */
+    private List<OperationLog> queryLogs(LogType logType, Long userId, String method, String operation,
+                                         String startTime, String endTime, Integer page, Integer size) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE log_type = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(logType.name());
+
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (StringUtils.hasText(method)) {
+            sql.append(" AND method = ?");
+            args.add(method);
+        }
+        if (StringUtils.hasText(operation)) {
+            sql.append(" AND operation = ?");
+            args.add(operation);
+        }
+        if (StringUtils.hasText(startTime)) {
+            sql.append(" AND create_time >= ?");
+            args.add(Timestamp.valueOf(DateTimeUtil.parseStart(startTime)));
+        }
+        if (StringUtils.hasText(endTime)) {
+            sql.append(" AND create_time < ?");
+            args.add(Timestamp.valueOf(DateTimeUtil.parseEnd(endTime)));
+        }
+
+        int pageNum = page != null && page > 0 ? page : 1;
+        int pageSize = size != null && size > 0 ? Math.min(size, 500) : 20;
+        sql.append(" ORDER BY create_time DESC, id DESC LIMIT ? OFFSET ?");
+        args.add(pageSize);
+        args.add((pageNum - 1) * pageSize);
+
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    private LogType parseLogType(String logType) {
+        try {
+            return LogType.valueOf(logType.toUpperCase());
+        } catch (RuntimeException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的日志类型: " + logType);
+        }
+    }
+
+    private static String fileToken(String time) {
+        return StringUtils.hasText(time) ? time.replaceAll("[^0-9]", "") : "all";
+    }
+
+    /**
+     * 读取断点：[最后导出的ID, 已完成的文件长度]，不存在时从头开始
+     */
+    private static long[] readCursor(Path cursorFile) throws IOException {
+        if (!Files.exists(cursorFile)) {
+            return new long[]{0L, 0L};
+        }
+        String[] parts = Files.readString(cursorFile, StandardCharsets.UTF_8).trim().split(" ");
+        return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+    }
+
+    private static void writeCursor(Path cursorFile, long lastId, FileChannel channel) {
+        try {
+            channel.force(false);
+            Files.writeString(cursorFile, lastId + " " + channel.position(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
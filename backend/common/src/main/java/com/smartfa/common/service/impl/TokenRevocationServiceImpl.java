@@ -0,0 +1,269 @@
+package com.smartfa.common.service.impl;
+
+import com.smartfa.common.concurrent.BloomFilter;
+import com.smartfa.common.security.AuthorityCache;
+import com.smartfa.common.service.TokenRevocationService;
+import com.smartfa.common.util.TokenClaims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token吊销服务实现类
+ * Redis中以revoked:token:{jti}保存已吊销的Token，TTL为Token剩余有效期；
+ * 本地布隆过滤器作为前置判断，绝大多数未吊销的Token无需访问Redis。
+ * 吊销时通过pub/sub通知所有实例更新本地过滤器，并定时从Redis重建以淘汰已过期的条目。
+ * 用户级吊销以revoked:user:{userId}保存吊销时间，TTL为Token有效期，此前签发的Token全部失效；
+ * 各实例在本地保存吊销时间并清除该用户的权限缓存。Token签发时间只精确到秒，同一秒内签发的Token也视为已吊销
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+    private static final String KEY_PREFIX = "revoked:token:";
+    private static final String CHANNEL = "channel:revoked-token";
+    private static final String USER_KEY_PREFIX = "revoked:user:";
+    private static final String USER_CHANNEL = "channel:revoked-user";
+
+    /**
+     * 布隆过滤器预期容量
+     */
+    @Value("${jwt.revocation.expected-size:100000}")
+    private long expectedSize;
+
+    /**
+     * 布隆过滤器误判率
+     */
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    /**
+     * 本地过滤器尚未与Redis同步且Redis不可用时，是否把所有Token视为已吊销。
+     * true更安全，但启动时Redis故障会拒绝所有用户；false只拒绝本实例已知的吊销
+     */
+    @Value("${jwt.revocation.fail-closed:false}")
+    private boolean failClosed;
+
+    @Value("${jwt.expiration:86400}")
+    private long tokenExpirationSeconds;
+
+    @Autowired
+    private AuthorityCache authorityCache;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+
+    /**
+     * 用户ID -> 用户级吊销时间（毫秒），只增不减，超过Token有效期后在重建时清理
+     */
+    private final Map<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+
+    /**
+     * 本地过滤器是否已与Redis同步，未同步时每次都查询Redis
+     */
+    private volatile boolean synced;
+
+    /**
+     * 是否已订阅吊销通知，未订阅时无法感知其他实例的吊销
+     */
+    private volatile boolean subscribed;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        filter = new BloomFilter(expectedSize, falsePositiveRate);
+        try {
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            listenerContainer.addMessageListener((message, pattern) ->
+                    addLocal(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+            listenerContainer.addMessageListener((message, pattern) ->
+                    applyUserCutoff(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(USER_CHANNEL));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+            subscribed = true;
+        } catch (Exception e) {
+            log.warn("订阅Token吊销通知失败，将直接查询Redis: {}", e.getMessage());
+        }
+        rebuild();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Override
+    public void revoke(TokenClaims claims) {
+        if (claims == null || claims.tokenId() == null) {
+            return;
+        }
+        Duration ttl = Duration.between(Instant.now(), claims.expiresAt());
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        // 先写Redis再更新本地过滤器：此后开始的重建一定能扫描到该记录
+        redisTemplate.opsForValue().set(KEY_PREFIX + claims.tokenId(), "1", ttl);
+        addLocal(claims.tokenId());
+        redisTemplate.convertAndSend(CHANNEL, claims.tokenId());
+    }
+
+    @Override
+    public void revokeUserTokens(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis();
+        String value = userId + ":" + cutoff;
+        redisTemplate.opsForValue().set(USER_KEY_PREFIX + userId, Long.toString(cutoff),
+                Duration.ofSeconds(tokenExpirationSeconds));
+        applyUserCutoff(value);
+        redisTemplate.convertAndSend(USER_CHANNEL, value);
+    }
+
+    @Override
+    public boolean isRevoked(TokenClaims claims) {
+        if (claims == null) {
+            return false;
+        }
+        return isTokenRevoked(claims) || isUserRevoked(claims);
+    }
+
+    private boolean isTokenRevoked(TokenClaims claims) {
+        if (claims.tokenId() == null) {
+            return false;
+        }
+        if (synced && !filter.mightContain(claims.tokenId())) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + claims.tokenId()));
+        } catch (Exception e) {
+            log.warn("查询Token吊销状态失败: {}", e.getMessage());
+            // 已同步时能走到这里说明过滤器命中，按已吊销处理；未同步时过滤器不完整，由fail-closed决定
+            return synced || failClosed || filter.mightContain(claims.tokenId());
+        }
+    }
+
+    /**
+     * 已同步时只查本地吊销时间；未同步时本地可能缺少其他实例的吊销，需查询Redis
+     */
+    private boolean isUserRevoked(TokenClaims claims) {
+        if (claims.userId() == null || claims.issuedAt() == null) {
+            return false;
+        }
+        Long cutoff = userCutoffs.get(claims.userId());
+        if (!synced) {
+            try {
+                String value = redisTemplate.opsForValue().get(USER_KEY_PREFIX + claims.userId());
+                if (value != null) {
+                    cutoff = Math.max(Long.parseLong(value), cutoff != null ? cutoff : 0L);
+                }
+            } catch (Exception e) {
+                log.warn("查询用户Token吊销状态失败: {}", e.getMessage());
+                if (failClosed) {
+                    return true;
+                }
+            }
+        }
+        return cutoff != null && claims.issuedAt().toEpochMilli() <= cutoff;
+    }
+
+    /**
+     * 从Redis重建布隆过滤器，淘汰已过期的吊销记录
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        BloomFilter fresh = new BloomFilter(expectedSize, falsePositiveRate);
+        rebuilding = fresh;
+        long count = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                fresh.put(cursor.next().substring(KEY_PREFIX.length()));
+                count++;
+            }
+            rebuildUserCutoffs();
+            filter = fresh;
+            synced = subscribed;
+            log.debug("Token吊销过滤器重建完成，共 {} 条", count);
+        } catch (Exception e) {
+            log.warn("Token吊销过滤器重建失败: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * 合并Redis中的用户级吊销时间，并清理超过Token有效期的本地记录（此前签发的Token均已过期）
+     */
+    private void rebuildUserCutoffs() {
+        ScanOptions options = ScanOptions.scanOptions().match(USER_KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                String cutoff = redisTemplate.opsForValue().get(key);
+                if (cutoff != null) {
+                    applyUserCutoff(key.substring(USER_KEY_PREFIX.length()) + ":" + cutoff);
+                }
+            }
+        }
+        long expired = System.currentTimeMillis() - tokenExpirationSeconds * 1000;
+        userCutoffs.values().removeIf(cutoff -> cutoff < expired);
+    }
+
+    /**
+     * 记录用户级吊销时间并清除该用户的权限缓存
+     *
+     * @param value "用户ID:吊销时间（毫秒）"
+     */
+    private void applyUserCutoff(String value) {
+        int separator = value.indexOf(':');
+        Long userId = Long.valueOf(value.substring(0, separator));
+        userCutoffs.merge(userId, Long.parseLong(value.substring(separator + 1)), Math::max);
+        authorityCache.invalidate(userId);
+    }
+
+    /**
+     * 写入当前过滤器和正在重建的过滤器；写入期间重建恰好完成并替换了过滤器时，对新过滤器重做一次
+     */
+    private void addLocal(String tokenId) {
+        BloomFilter current;
+        do {
+            current = filter;
+            current.put(tokenId);
+            BloomFilter next = rebuilding;
+            if (next != null) {
+                next.put(tokenId);
+            }
+        } while (current != filter);
+    }
+}
@@ -1,14 +1,19 @@
 package com.smartfa.common.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.smartfa.common.entity.User;
 import com.smartfa.common.enums.ResultCode;
 import com.smartfa.common.exception.BusinessException;
 import com.smartfa.common.mapper.UserMapper;
+import com.smartfa.common.security.AuthorityCache;
+import com.smartfa.common.security.LastLoginRecorder;
+import com.smartfa.common.security.LoginRateLimiter;
+import com.smartfa.common.security.PasswordHasher;
+import com.smartfa.common.service.TokenRevocationService;
 import com.smartfa.common.service.UserService;
 import com.smartfa.common.util.JwtUtil;
-import com.smartfa.common.util.PasswordUtil;
 import com.smartfa.common.vo.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +37,21 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private AuthorityCache authorityCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     public User findByUsername(String username) {
         return userMapper.findByUsername(username);
@@ -44,10 +64,22 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     @Override
     public Result<String> login(String username, String password) {
+        return login(username, password, null);
+    }
+
+    @Override
+    public Result<String> login(String username, String password, String ip) {
         try {
+            // 限流检查在BCrypt校验之前，被拒绝的请求不消耗哈希线程
+            if (loginRateLimiter.isLimited(username, ip)) {
+                log.warn("登录尝试过于频繁: username={}, ip={}", username, ip);
+                return Result.error(ResultCode.LOGIN_TOO_FREQUENT);
+            }
+
             // 查询用户
             User user = findByUsername(username);
             if (user == null) {
+                loginRateLimiter.recordFailure(username);
                 return Result.error(ResultCode.USER_NOT_FOUND);
             }
 
@@ -56,21 +88,34 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
                 return Result.error(ResultCode.USER_DISABLED);
             }
 
-            // 验证密码
-            if (!PasswordUtil.matches(password, user.getPassword())) {
+            // 验证密码（在专用线程池中执行）
+            if (!passwordHasher.matches(password, user.getPassword())) {
+                loginRateLimiter.recordFailure(username);
                 return Result.error(ResultCode.PASSWORD_ERROR);
             }
+            loginRateLimiter.recordSuccess(username);
 
-            // 生成JWT Token
-            String token = JwtUtil.createToken(user.getId(), user.getUsername());
+            // 旧哈希强度不足时后台升级，仅在密码未被修改时覆盖，避免覆盖期间设置的新密码
+            String oldHash = user.getPassword();
+            passwordHasher.upgradeIfNeeded(password, oldHash, encoded ->
+                    userMapper.update(null, new LambdaUpdateWrapper<User>()
+                            .eq(User::getId, user.getId())
+                            .eq(User::getPassword, oldHash)
+                            .set(User::getPassword, encoded)));
 
-            // 更新最后登录时间
-            user.setUpdateTime(LocalDateTime.now());
-            userMapper.updateById(user);
+            // 生成JWT Token，角色编码作为权限声明写入，鉴权时不再查询角色
+            String token = JwtUtil.createToken(user.getId(), user.getUsername(),
+                    authorityCache.getAuthorities(user.getId()));
+
+            // 记录最后登录时间（异步合并写入）
+            lastLoginRecorder.record(user.getId(), LocalDateTime.now());
 
             log.info("用户登录成功: {}", username);
             return Result.success(token);
 
+        } catch (BusinessException e) {
+            log.warn("用户登录被拒绝: {}, {}", username, e.getMessage());
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("用户登录失败: {}", e.getMessage(), e);
             return Result.error(ResultCode.SYSTEM_ERROR);
@@ -91,8 +136,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
                 return Result.error(ResultCode.EMAIL_ALREADY_EXISTS);
             }
 
-            // 加密密码
-            user.setPassword(PasswordUtil.encode(user.getPassword()));
+            // 加密密码（在专用线程池中执行）
+            user.setPassword(passwordHasher.encode(user.getPassword()));
 
             // 设置默认状态
             if (user.getStatus() == null) {
@@ -105,6 +150,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             log.info("创建用户成功: {}", user.getUsername());
             return Result.success(user);
 
+        } catch (BusinessException e) {
+            // 密码哈希线程池繁忙时原样抛出SYSTEM_BUSY
+            throw e;
         } catch (Exception e) {
             log.error("创建用户失败: {}", e.getMessage(), e);
             throw new BusinessException("创建用户失败");
@@ -137,7 +185,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             // 如果密码有变化，重新加密
             if (StringUtils.hasText(user.getPassword()) && 
                 !user.getPassword().equals(existingUser.getPassword())) {
-                user.setPassword(PasswordUtil.encode(user.getPassword()));
+                user.setPassword(passwordHasher.encode(user.getPassword()));
             } else {
                 user.setPassword(existingUser.getPassword());
             }
@@ -148,6 +196,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             log.info("更新用户成功: {}", user.getUsername());
             return Result.success(user);
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("更新用户失败: {}", e.getMessage(), e);
             throw new BusinessException("更新用户失败");
@@ -166,6 +216,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             // 软删除：设置状态为禁用
             user.setStatus(0);
             userMapper.updateById(user);
+            tokenRevocationService.revokeUserTokens(userId);
 
             log.info("删除用户成功: {}", user.getUsername());
             return Result.success();
@@ -181,6 +232,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     public Result<Void> assignRoles(Long userId, List<Long> roleIds) {
         try {
             // TODO: 实现用户角色分配逻辑
+            // 已签发Token中的权限声明随之失效，各实例的权限缓存同时清除
+            tokenRevocationService.revokeUserTokens(userId);
             log.info("分配角色成功: userId={}, roleIds={}", userId, roleIds);
             return Result.success();
 
@@ -206,17 +259,19 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             }
 
             // 验证旧密码
-            if (!PasswordUtil.matches(oldPassword, user.getPassword())) {
+            if (!passwordHasher.matches(oldPassword, user.getPassword())) {
                 return Result.error(ResultCode.PASSWORD_ERROR);
             }
 
             // 更新新密码
-            user.setPassword(PasswordUtil.encode(newPassword));
+            user.setPassword(passwordHasher.encode(newPassword));
             userMapper.updateById(user);
 
             log.info("修改密码成功: userId={}", userId);
             return Result.success();
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("修改密码失败: {}", e.getMessage(), e);
             throw new BusinessException("修改密码失败");
@@ -233,12 +288,14 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             }
 
             // 更新密码
-            user.setPassword(PasswordUtil.encode(newPassword));
+            user.setPassword(passwordHasher.encode(newPassword));
             userMapper.updateById(user);
 
             log.info("重置密码成功: userId={}", userId);
             return Result.success();
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("重置密码失败: {}", e.getMessage(), e);
             throw new BusinessException("重置密码失败");
@@ -0,0 +1,53 @@
+package com.smartfa.common.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 时间参数工具类
+ * 解析查询、导出接口的时间区间参数，支持"yyyy-MM-dd HH:mm:ss"和"yyyy-MM-dd"
+ */
+public final class DateTimeUtil {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private DateTimeUtil() {
+    }
+
+    /**
+     * 解析区间起点（含）
+     *
+     * @param value 时间参数
+     * @return 参数为空时返回null
+     * @throws DateTimeParseException 格式不正确
+     */
+    public static LocalDateTime parseStart(String value) {
+        return parse(value, false);
+    }
+
+    /**
+     * 解析区间终点（不含），纯日期取次日零点，使区间包含当天
+     *
+     * @param value 时间参数
+     * @return 参数为空时返回null
+     * @throws DateTimeParseException 格式不正确
+     */
+    public static LocalDateTime parseEnd(String value) {
+        return parse(value, true);
+    }
+
+    private static LocalDateTime parse(String value, boolean end) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        if (text.length() == 10) {
+            LocalDate date = LocalDate.parse(text);
+            return end ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+        }
+        LocalDateTime time = LocalDateTime.parse(text, DATE_TIME_FORMATTER);
+        return end ? time.plusSeconds(1) : time;
+    }
+}
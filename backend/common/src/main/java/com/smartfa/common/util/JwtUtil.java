@@ -1,57 +1,113 @@
 package com.smartfa.common.util;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * JWT工具类
+ * Algorithm和JWTVerifier只在启动时构建一次；验证通过的Token按其SHA-256缓存解析结果，
+ * 缓存项在Token过期时失效，同一Token的重复请求不再做HMAC校验和Base64解码
  */
 @Component
 public class JwtUtil {
 
     private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
 
+    private static final String DEFAULT_SECRET = "smartfa-secret-key";
+
+    private static final String AUTHORITIES_CLAIM = "auth";
+
     @Value("${jwt.secret:smartfa-secret-key}")
     private String secret;
 
     @Value("${jwt.expiration:86400}")
     private Long expiration;
 
+    /**
+     * 已验证Token缓存的最大条数
+     */
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheSize;
+
     /**
      * Token过期时间（秒）
      */
     public static final Long EXPIRATION = 86400L;
 
+    private static volatile Algorithm algorithm = Algorithm.HMAC256(DEFAULT_SECRET);
+
+    private static volatile JWTVerifier verifier = JWT.require(algorithm).build();
+
+    private static volatile long expirationSeconds = EXPIRATION;
+
+    private static volatile Cache<String, TokenClaims> claimsCache = buildClaimsCache(10000);
+
     /**
-     * 创建JWT Token
+     * 用配置的密钥和过期时间替换默认值，未在Spring中使用时保持默认配置
+     */
+    @PostConstruct
+    public void init() {
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm).build();
+        expirationSeconds = expiration;
+        claimsCache = buildClaimsCache(claimsCacheSize);
+    }
+
+    /**
+     * 创建不带权限声明的JWT Token，鉴权时按用户ID从AuthorityCache获取权限
      *
      * @param userId 用户ID
      * @param username 用户名
      * @return JWT Token
      */
     public static String createToken(Long userId, String username) {
-        // 这里使用默认配置，实际应该从配置文件读取
-        String secret = "smartfa-secret-key";
-        Long expiration = 86400L; // 24小时
+        return createToken(userId, username, null);
+    }
 
+    /**
+     * 创建携带权限声明的JWT Token，鉴权时无需再查询角色
+     *
+     * @param userId 用户ID
+     * @param username 用户名
+     * @param authorities 权限（角色编码），为null时不写入权限声明
+     * @return JWT Token
+     */
+    public static String createToken(Long userId, String username, List<String> authorities) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration * 1000);
+        Date expiryDate = new Date(now.getTime() + expirationSeconds * 1000);
 
-        return JWT.create()
+        JWTCreator.Builder builder = JWT.create()
+                .withJWTId(UUID.randomUUID().toString())
                 .withSubject(userId.toString())
                 .withClaim("username", username)
                 .withIssuedAt(now)
-                .withExpiresAt(expiryDate)
-                .sign(Algorithm.HMAC256(secret));
+                .withExpiresAt(expiryDate);
+        if (authorities != null) {
+            builder.withClaim(AUTHORITIES_CLAIM, authorities);
+        }
+        return builder.sign(algorithm);
     }
 
     /**
@@ -64,6 +120,34 @@ public class JwtUtil {
         return createToken(1L, username); // 使用默认用户ID
     }
 
+    /**
+     * 验证并解析JWT Token，一次返回用户ID、用户名和过期时间
+     *
+     * @param token JWT Token
+     * @return 声明信息，Token无效或已过期时返回null
+     */
+    public static TokenClaims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = hash(token);
+        TokenClaims cached = claimsCache.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        try {
+            DecodedJWT jwt = verifier.verify(token);
+            TokenClaims claims = new TokenClaims(jwt.getId(), Long.valueOf(jwt.getSubject()),
+                    jwt.getClaim("username").asString(), jwt.getIssuedAtAsInstant(), jwt.getExpiresAtAsInstant(),
+                    jwt.getClaim(AUTHORITIES_CLAIM).asList(String.class));
+            claimsCache.put(key, claims);
+            return claims;
+        } catch (JWTVerificationException | NumberFormatException e) {
+            log.debug("JWT Token验证失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 验证JWT Token
      *
@@ -71,16 +155,7 @@ public class JwtUtil {
      * @return 验证结果
      */
     public static boolean verifyToken(String token) {
-        try {
-            String secret = "smartfa-secret-key";
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            JWTVerifier verifier = JWT.require(algorithm).build();
-            verifier.verify(token);
-            return true;
-        } catch (JWTVerificationException e) {
-            log.error("JWT Token验证失败: {}", e.getMessage());
-            return false;
-        }
+        return parseToken(token) != null;
     }
 
     /**
@@ -90,13 +165,8 @@ public class JwtUtil {
      * @return 用户ID
      */
     public static Long getUserIdFromToken(String token) {
-        try {
-            DecodedJWT jwt = JWT.decode(token);
-            return Long.valueOf(jwt.getSubject());
-        } catch (Exception e) {
-            log.error("从Token中获取用户ID失败: {}", e.getMessage());
-            return null;
-        }
+        TokenClaims claims = parseToken(token);
+        return claims != null ? claims.userId() : null;
     }
 
     /**
@@ -106,13 +176,8 @@ public class JwtUtil {
      * @return 用户名
      */
     public static String getUsernameFromToken(String token) {
-        try {
-            DecodedJWT jwt = JWT.decode(token);
-            return jwt.getClaim("username").asString();
-        } catch (Exception e) {
-            log.error("从Token中获取用户名失败: {}", e.getMessage());
-            return null;
-        }
+        TokenClaims claims = parseToken(token);
+        return claims != null ? claims.username() : null;
     }
 
     /**
@@ -135,17 +200,45 @@ public class JwtUtil {
      * 刷新Token
      *
      * @param token 原Token
-     * @return 新Token
+     * @return 新Token，原Token无效时返回null
      */
     public static String refreshToken(String token) {
-        try {
-            DecodedJWT jwt = JWT.decode(token);
-            Long userId = Long.valueOf(jwt.getSubject());
-            String username = jwt.getClaim("username").asString();
-            return createToken(userId, username);
-        } catch (Exception e) {
-            log.error("刷新Token失败: {}", e.getMessage());
+        TokenClaims claims = parseToken(token);
+        if (claims == null) {
+            log.error("刷新Token失败: Token无效或已过期");
             return null;
         }
+        return createToken(claims.userId(), claims.username(), claims.authorities());
+    }
+
+    private static Cache<String, TokenClaims> buildClaimsCache(long maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenClaims value, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenClaims value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TokenClaims value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
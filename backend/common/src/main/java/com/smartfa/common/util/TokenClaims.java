@@ -0,0 +1,25 @@
+package com.smartfa.common.util;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 已验证Token的声明信息
+ *
+ * @param tokenId Token唯一标识（jti），用于吊销
+ * @param userId 用户ID（subject）
+ * @param username 用户名
+ * @param issuedAt 签发时间（精确到秒），用于判断是否早于用户级吊销
+ * @param expiresAt 过期时间
+ * @param authorities 签发时的权限（角色编码），旧Token中没有该声明时为null
+ */
+public record TokenClaims(String tokenId, Long userId, String username, Instant issuedAt, Instant expiresAt,
+                          List<String> authorities) {
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
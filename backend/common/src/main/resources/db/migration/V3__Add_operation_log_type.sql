@@ -0,0 +1,9 @@
+-- 失效分析智能辅助平台 - 操作日志类型字段
+-- 版本：3.0
+-- 说明：异步日志写入需要区分操作/异常/AI调用/安全事件日志
+
+ALTER TABLE `sys_operation_log`
+    ADD COLUMN `log_type` VARCHAR(20) NOT NULL DEFAULT 'OPERATION' COMMENT '日志类型：OPERATION/EXCEPTION/AI_CALL/SECURITY' AFTER `id`,
+    ADD COLUMN `status` TINYINT DEFAULT 1 COMMENT '状态：0-失败，1-成功' AFTER `execution_time`,
+    ADD COLUMN `error_message` VARCHAR(1000) COMMENT '错误信息' AFTER `status`,
+    ADD KEY `idx_log_type_create_time` (`log_type`, `create_time`);
@@ -0,0 +1,21 @@
+-- 失效分析智能辅助平台 - 操作日志按月分区
+-- 版本：4.0
+-- 说明：sys_operation_log按create_time做RANGE COLUMNS分区，过期数据按整分区删除；
+--       后续分区由LogPartitionManager定时创建（拆分pmax）
+
+-- 分区表不支持外键，且分区键必须包含在主键中
+ALTER TABLE `sys_operation_log` DROP FOREIGN KEY `fk_operation_log_user_id`;
+
+ALTER TABLE `sys_operation_log`
+    MODIFY COLUMN `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (`id`, `create_time`);
+
+ALTER TABLE `sys_operation_log`
+PARTITION BY RANGE COLUMNS (`create_time`) (
+    PARTITION `p_history` VALUES LESS THAN ('2026-10-01'),
+    PARTITION `p202610` VALUES LESS THAN ('2026-11-01'),
+    PARTITION `p202611` VALUES LESS THAN ('2026-12-01'),
+    PARTITION `p202612` VALUES LESS THAN ('2027-01-01'),
+    PARTITION `pmax` VALUES LESS THAN (MAXVALUE)
+);
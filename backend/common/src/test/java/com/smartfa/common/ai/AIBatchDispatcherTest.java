@@ -0,0 +1,165 @@
+package com.smartfa.common.ai;
+
+import com.smartfa.common.annotation.AIMonitor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AI微批调度器测试类
+ */
+class AIBatchDispatcherTest {
+
+    private AIBatchDispatcher dispatcher;
+
+    private StubModelServer stubServer;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new AIBatchDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "maxBatchSize", 4);
+        ReflectionTestUtils.setField(dispatcher, "maxDelayMs", 20L);
+        stubServer = new StubModelServer();
+        dispatcher.registerHandler(stubServer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testSubmit_EveryRequestCompletesWithinBatchLimit() throws Exception {
+        // When
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(dispatcher.submit("llm-service", "generate", "prompt-" + i));
+        }
+
+        // Then 批次拆分取决于调度时机，只校验结果对应关系和批大小上限
+        for (int i = 0; i < 10; i++) {
+            assertEquals("result-prompt-" + i, futures.get(i).get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(10, stubServer.batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(stubServer.batchSizes.stream().allMatch(size -> size >= 1 && size <= 4));
+    }
+
+    @Test
+    void testSubmit_PartialBatchIsFlushedAfterDelay() throws Exception {
+        // When
+        CompletableFuture<String> first = dispatcher.submit("llm-service", "generate", "a");
+        CompletableFuture<String> second = dispatcher.submit("llm-service", "generate", "b");
+
+        // Then
+        assertEquals("result-a", first.get(1, TimeUnit.SECONDS));
+        assertEquals("result-b", second.get(1, TimeUnit.SECONDS));
+        assertEquals(2, stubServer.batchSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void testExecute_BatchableCallGoesThroughHandler() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{"a"});
+        AIMonitor aiMonitor = aiMonitor(true);
+
+        // When
+        Object result = dispatcher.execute(joinPoint, aiMonitor, () -> fail("不应单条调用"));
+
+        // Then
+        assertEquals("result-a", result);
+        assertEquals(1, stubServer.batchSizes.size());
+    }
+
+    @Test
+    void testExecute_NonBatchableCallProceedsDirectly() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{"a"});
+        AIMonitor aiMonitor = aiMonitor(false);
+
+        // When
+        Object result = dispatcher.execute(joinPoint, aiMonitor, () -> "single");
+
+        // Then
+        assertEquals("single", result);
+        assertTrue(stubServer.batchSizes.isEmpty());
+    }
+
+    @Test
+    void testSubmit_BatchFailureIsPropagatedToAllCallers() {
+        // Given
+        stubServer.failing = true;
+
+        // When
+        CompletableFuture<String> first = dispatcher.submit("llm-service", "generate", "a");
+        CompletableFuture<String> second = dispatcher.submit("llm-service", "generate", "b");
+
+        // Then
+        assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmit_UnknownHandler() {
+        // When
+        CompletableFuture<Object> future = dispatcher.submit("unknown", "generate", "a");
+
+        // Then
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    private static AIMonitor aiMonitor(boolean batchable) {
+        AIMonitor aiMonitor = mock(AIMonitor.class);
+        when(aiMonitor.serviceName()).thenReturn("llm-service");
+        when(aiMonitor.operation()).thenReturn("generate");
+        when(aiMonitor.timeout()).thenReturn(1000L);
+        when(aiMonitor.batchable()).thenReturn(batchable);
+        return aiMonitor;
+    }
+
+    /**
+     * 模拟模型服务的批量接口
+     */
+    private static class StubModelServer implements AIBatchHandler<String, String> {
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        private volatile boolean failing;
+
+        @Override
+        public String serviceName() {
+            return "llm-service";
+        }
+
+        @Override
+        public String operation() {
+            return "generate";
+        }
+
+        @Override
+        public List<String> invokeBatch(List<String> inputs) {
+            batchSizes.add(inputs.size());
+            if (failing) {
+                throw new IllegalStateException("model server unavailable");
+            }
+            List<String> outputs = new ArrayList<>(inputs.size());
+            for (String input : inputs) {
+                outputs.add("result-" + input);
+            }
+            return outputs;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartfa.common.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 熔断器测试类
+ */
+class CircuitBreakerTest {
+
+    @Test
+    void testOnFailure_OpensAtThresholdAndTrialClosesIt() throws InterruptedException {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(2, 20);
+        assertFalse(breaker.onFailure(breaker.tryAcquirePermission()));
+
+        // When
+        assertTrue(breaker.onFailure(breaker.tryAcquirePermission()));
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+        Thread.sleep(30);
+        long trial = breaker.tryAcquirePermission();
+        assertNotEquals(CircuitBreaker.REJECTED, trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testOnSuccess_StalePermitDoesNotCloseHalfOpenBreaker() throws InterruptedException {
+        // Given 打开前发出的慢调用在半开期间才返回
+        CircuitBreaker breaker = new CircuitBreaker(1, 20);
+        long slowCall = breaker.tryAcquirePermission();
+        breaker.onFailure(breaker.tryAcquirePermission());
+        Thread.sleep(30);
+        long trial = breaker.tryAcquirePermission();
+
+        // When
+        breaker.onSuccess(slowCall);
+
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onFailure(trial);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testReleasePermission_StalePermitDoesNotFreeTrialSlot() throws InterruptedException {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(1, 20);
+        long slowCall = breaker.tryAcquirePermission();
+        breaker.onFailure(breaker.tryAcquirePermission());
+        Thread.sleep(30);
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+
+        // When
+        breaker.releasePermission(slowCall);
+
+        // Then 试探调用仍在进行，不放行第二个
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testOnFailure_StalePermitDoesNotReopenClosedBreaker() throws InterruptedException {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(1, 20);
+        long slowCall = breaker.tryAcquirePermission();
+        breaker.onFailure(breaker.tryAcquirePermission());
+        Thread.sleep(30);
+        breaker.onSuccess(breaker.tryAcquirePermission());
+
+        // When
+        boolean opened = breaker.onFailure(slowCall);
+
+        // Then
+        assertFalse(opened);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,124 @@
+package com.smartfa.common.controller;
+
+import com.smartfa.common.entity.User;
+import com.smartfa.common.security.AuthorityCache;
+import com.smartfa.common.security.JwtAuthenticationFilter;
+import com.smartfa.common.service.TokenRevocationService;
+import com.smartfa.common.service.UserService;
+import com.smartfa.common.util.JwtUtil;
+import com.smartfa.common.util.TokenClaims;
+import com.smartfa.common.vo.Result;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 认证控制器测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthControllerTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private AuthorityCache authorityCache;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRefreshToken_NewTokenKeepsAuthorities() throws Exception {
+        // Given
+        String oldToken = JwtUtil.createToken(1L, "testuser", List.of("ADMIN"));
+        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(authorityCache.getAuthorities(1L)).thenReturn(List.of("ADMIN"));
+
+        // When
+        Result<Map<String, Object>> result = authController.refreshToken("Bearer " + oldToken);
+
+        // Then
+        assertTrue(result.isSuccess());
+        String newToken = (String) result.getData().get("token");
+        assertEquals(List.of("ADMIN"), JwtUtil.parseToken(newToken).authorities());
+        verify(tokenRevocationService, times(1)).revoke(any(TokenClaims.class));
+
+        Authentication authentication = authenticate(newToken);
+        assertNotNull(authentication);
+        assertEquals(List.of("ADMIN"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testRefreshToken_RevokedTokenIsRejected() {
+        // Given
+        String oldToken = JwtUtil.createToken(1L, "testuser", List.of("ADMIN"));
+        when(tokenRevocationService.isRevoked(any(TokenClaims.class))).thenReturn(true);
+
+        // When
+        Result<Map<String, Object>> result = authController.refreshToken("Bearer " + oldToken);
+
+        // Then
+        assertFalse(result.isSuccess());
+        assertEquals(401, result.getCode());
+        verify(userService, never()).findByUsername(any());
+    }
+
+    @Test
+    void testAuthenticate_TokenWithoutAuthorityClaimFallsBackToCache() throws Exception {
+        // Given
+        String token = JwtUtil.createToken(1L, "testuser");
+        when(authorityCache.getAuthorities(1L)).thenReturn(List.of("FA_ENGINEER"));
+
+        // When
+        Authentication authentication = authenticate(token);
+
+        // Then
+        assertNotNull(authentication);
+        assertEquals(List.of("FA_ENGINEER"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cases");
+        request.addHeader("Authorization", "Bearer " + token);
+        new JwtAuthenticationFilter(tokenRevocationService, authorityCache)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
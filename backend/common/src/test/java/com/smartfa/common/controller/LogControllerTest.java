@@ -0,0 +1,61 @@
+package com.smartfa.common.controller;
+
+import com.smartfa.common.enums.LogType;
+import com.smartfa.common.log.LogExportFormat;
+import com.smartfa.common.service.LoggingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 日志控制器测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class LogControllerTest {
+
+    @Mock
+    private LoggingService loggingService;
+
+    @InjectMocks
+    private LogController logController;
+
+    @Test
+    void testExportLogs_InvalidTimeReturnsBadRequest() {
+        // When
+        ResponseEntity<StreamingResponseBody> response =
+                logController.exportLogs("OPERATION", "2024-13-01", null, "NDJSON", 0L);
+
+        // Then 参数错误在开始输出前返回，不会进入流式导出
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNull(response.getBody());
+        verifyNoInteractions(loggingService);
+    }
+
+    @Test
+    void testExportLogs_PassesParsedTimeRange() throws Exception {
+        // Given
+        ResponseEntity<StreamingResponseBody> response =
+                logController.exportLogs("operation", "2024-01-01", "2024-01-31 12:00:00", "csv", 5L);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        // When
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        // Then 纯日期起点取当天零点，带时间的终点取下一秒（不含）
+        verify(loggingService).exportLogs(eq(LogType.OPERATION), eq(LocalDateTime.of(2024, 1, 1, 0, 0)),
+                eq(LocalDateTime.of(2024, 1, 31, 12, 0, 1)), eq(LogExportFormat.CSV), eq(5L), any());
+    }
+}
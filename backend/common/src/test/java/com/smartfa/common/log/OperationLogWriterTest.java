@@ -0,0 +1,110 @@
+package com.smartfa.common.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartfa.common.entity.OperationLog;
+import com.smartfa.common.enums.LogType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 操作日志异步写入器测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class OperationLogWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private OperationLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(writer, "capacity", 64);
+        ReflectionTestUtils.setField(writer, "batchSize", 16);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(writer, "overflowPolicy", LogOverflowPolicy.DROP);
+        ReflectionTestUtils.setField(writer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writer, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        writer.start();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmit_FillsMissingOperationTime() {
+        // Given
+        OperationLog operationLog = operationLog(LogType.OPERATION);
+
+        // When
+        boolean accepted = writer.submit(operationLog);
+        writer.stop();
+
+        // Then
+        assertTrue(accepted);
+        assertNotNull(operationLog.getOperationTime());
+        ArgumentCaptor<Collection<OperationLog>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(operationLog), List.copyOf(batch.getValue()));
+    }
+
+    @Test
+    void testSubmit_RejectsLogWithoutType() {
+        // Given
+        OperationLog operationLog = operationLog(null);
+
+        // When
+        boolean accepted = writer.submit(operationLog);
+        writer.stop();
+
+        // Then 坏数据不进入队列，不会拖垮整批
+        assertFalse(accepted);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testWriteBatch_CountsFailedRows() {
+        // Given
+        doThrow(new DataAccessResourceFailureException("down")).when(jdbcTemplate)
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        // When
+        writer.submit(operationLog(LogType.OPERATION));
+        writer.submit(operationLog(LogType.SECURITY));
+        writer.stop();
+
+        // Then
+        assertEquals(2, writer.getFailedCount());
+    }
+
+    private static OperationLog operationLog(LogType logType) {
+        OperationLog operationLog = new OperationLog();
+        operationLog.setLogType(logType);
+        operationLog.setUserId(1L);
+        operationLog.setOperationType("LOGIN");
+        operationLog.setRequestParams("{\"username\":\"testuser\"}");
+        operationLog.setIpAddress("10.0.0.1");
+        return operationLog;
+    }
+}
@@ -0,0 +1,61 @@
+package com.smartfa.common.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 登录限流测试类
+ */
+class LoginRateLimiterTest {
+
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(rateLimiter, "maxFailuresPerUser", 5);
+    }
+
+    @Test
+    void testIsLimited_IpLimitDisabledByDefault() {
+        // Given 代理之后所有请求共用同一个IP
+        rateLimiter.init();
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertFalse(rateLimiter.isLimited("user" + i, "10.0.0.1"));
+        }
+    }
+
+    @Test
+    void testIsLimited_IpLimitWhenConfigured() {
+        // Given
+        ReflectionTestUtils.setField(rateLimiter, "maxAttemptsPerIp", 3);
+        rateLimiter.init();
+        for (int i = 0; i < 3; i++) {
+            assertFalse(rateLimiter.isLimited("user" + i, "10.0.0.1"));
+        }
+
+        // When & Then
+        assertTrue(rateLimiter.isLimited("user3", "10.0.0.1"));
+        assertFalse(rateLimiter.isLimited("user3", "10.0.0.2"));
+    }
+
+    @Test
+    void testIsLimited_UserFailuresStillLimited() {
+        // Given
+        rateLimiter.init();
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.recordFailure("testuser");
+        }
+
+        // When & Then
+        assertTrue(rateLimiter.isLimited("testuser", "10.0.0.1"));
+        rateLimiter.recordSuccess("testuser");
+        assertFalse(rateLimiter.isLimited("testuser", "10.0.0.1"));
+    }
+}
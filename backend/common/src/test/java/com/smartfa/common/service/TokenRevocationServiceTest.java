@@ -0,0 +1,86 @@
+package com.smartfa.common.service;
+
+import com.smartfa.common.concurrent.BloomFilter;
+import com.smartfa.common.security.AuthorityCache;
+import com.smartfa.common.service.impl.TokenRevocationServiceImpl;
+import com.smartfa.common.util.TokenClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Token吊销服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private AuthorityCache authorityCache;
+
+    @InjectMocks
+    private TokenRevocationServiceImpl tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenRevocationService, "tokenExpirationSeconds", 86400L);
+        ReflectionTestUtils.setField(tokenRevocationService, "filter", new BloomFilter(1000, 0.01));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testRevokeUserTokens_RevokesTokensIssuedBefore() {
+        // Given
+        ReflectionTestUtils.setField(tokenRevocationService, "synced", true);
+        TokenClaims before = claims(1L, Instant.now().minusSeconds(60));
+        TokenClaims otherUser = claims(2L, Instant.now().minusSeconds(60));
+
+        // When
+        tokenRevocationService.revokeUserTokens(1L);
+
+        // Then 角色变更后重新登录签发的Token不受影响
+        assertTrue(tokenRevocationService.isRevoked(before));
+        assertFalse(tokenRevocationService.isRevoked(otherUser));
+        assertFalse(tokenRevocationService.isRevoked(claims(1L, Instant.now().plusSeconds(1))));
+        verify(valueOperations).set(eq("revoked:user:1"), anyString(), eq(Duration.ofSeconds(86400)));
+        verify(redisTemplate).convertAndSend(eq("channel:revoked-user"), any(String.class));
+        verify(authorityCache).invalidate(1L);
+    }
+
+    @Test
+    void testIsRevoked_UnsyncedInstanceReadsUserCutoffFromRedis() {
+        // Given 其他实例的吊销，本实例尚未收到通知
+        Instant issuedAt = Instant.now().minusSeconds(60);
+        when(valueOperations.get("revoked:user:1")).thenReturn(Long.toString(System.currentTimeMillis()));
+
+        // When & Then
+        assertTrue(tokenRevocationService.isRevoked(claims(1L, issuedAt)));
+    }
+
+    private static TokenClaims claims(Long userId, Instant issuedAt) {
+        Instant issued = issuedAt.truncatedTo(ChronoUnit.SECONDS);
+        return new TokenClaims(null, userId, "user" + userId, issued, issued.plusSeconds(3600), List.of("ADMIN"));
+    }
+}
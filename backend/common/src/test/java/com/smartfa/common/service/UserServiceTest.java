@@ -1,24 +1,38 @@
 package com.smartfa.common.service;
 
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.smartfa.common.entity.User;
 import com.smartfa.common.enums.ResultCode;
+import com.smartfa.common.exception.BusinessException;
 import com.smartfa.common.mapper.UserMapper;
+import com.smartfa.common.security.AuthorityCache;
+import com.smartfa.common.security.LastLoginRecorder;
+import com.smartfa.common.security.LoginRateLimiter;
+import com.smartfa.common.security.PasswordHasher;
 import com.smartfa.common.service.impl.UserServiceImpl;
 import com.smartfa.common.util.JwtUtil;
 import com.smartfa.common.util.PasswordUtil;
 import com.smartfa.common.vo.Result;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,6 +44,21 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @Mock
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Mock
+    private AuthorityCache authorityCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -79,7 +108,8 @@ class UserServiceTest {
     void testLogin_Success() {
         // Given
         when(userMapper.findByUsername("testuser")).thenReturn(testUser);
-        when(userMapper.updateById(any(User.class))).thenReturn(1);
+        when(passwordHasher.matches("password123", testUser.getPassword())).thenReturn(true);
+        when(authorityCache.getAuthorities(1L)).thenReturn(List.of("FA_ENGINEER"));
 
         // When
         Result<String> result = userService.login("testuser", "password123");
@@ -87,8 +117,35 @@ class UserServiceTest {
         // Then
         assertTrue(result.isSuccess());
         assertNotNull(result.getData());
+        assertEquals(List.of("FA_ENGINEER"), JwtUtil.parseToken(result.getData()).authorities());
         verify(userMapper, times(1)).findByUsername("testuser");
-        verify(userMapper, times(1)).updateById(any(User.class));
+        verify(lastLoginRecorder, times(1)).record(eq(1L), any(LocalDateTime.class));
+        verify(userMapper, never()).updateById(any(User.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLogin_RehashOnlyReplacesUnchangedHash() {
+        // Given
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), User.class);
+        String oldHash = testUser.getPassword();
+        when(userMapper.findByUsername("testuser")).thenReturn(testUser);
+        when(passwordHasher.matches("password123", oldHash)).thenReturn(true);
+        doAnswer(invocation -> {
+            ((Consumer<String>) invocation.getArgument(2)).accept("upgraded-hash");
+            return null;
+        }).when(passwordHasher).upgradeIfNeeded(eq("password123"), eq(oldHash), any());
+
+        // When
+        Result<String> result = userService.login("testuser", "password123");
+
+        // Then 以旧哈希作为更新条件，期间密码被修改时不覆盖
+        assertTrue(result.isSuccess());
+        ArgumentCaptor<LambdaUpdateWrapper<User>> wrapper = ArgumentCaptor.forClass(LambdaUpdateWrapper.class);
+        verify(userMapper).update(isNull(), wrapper.capture());
+        assertTrue(wrapper.getValue().getSqlSegment().contains("password ="));
+        assertTrue(wrapper.getValue().getParamNameValuePairs().containsValue(oldHash));
+        assertTrue(wrapper.getValue().getParamNameValuePairs().containsValue("upgraded-hash"));
     }
 
     @Test
@@ -117,6 +174,22 @@ class UserServiceTest {
         assertFalse(result.isSuccess());
         assertEquals(ResultCode.PASSWORD_ERROR.getCode(), result.getCode());
         verify(userMapper, times(1)).findByUsername("testuser");
+        verify(loginRateLimiter, times(1)).recordFailure("testuser");
+    }
+
+    @Test
+    void testLogin_RateLimited() {
+        // Given
+        when(loginRateLimiter.isLimited("testuser", "10.0.0.1")).thenReturn(true);
+
+        // When
+        Result<String> result = userService.login("testuser", "password123", "10.0.0.1");
+
+        // Then
+        assertFalse(result.isSuccess());
+        assertEquals(ResultCode.LOGIN_TOO_FREQUENT.getCode(), result.getCode());
+        verify(userMapper, never()).findByUsername(anyString());
+        verify(passwordHasher, never()).matches(anyString(), anyString());
     }
 
     @Test
@@ -146,6 +219,7 @@ class UserServiceTest {
         when(userMapper.findByUsername("newuser")).thenReturn(null);
         when(userMapper.findByEmail("newuser@example.com")).thenReturn(null);
         when(userMapper.insert(any(User.class))).thenReturn(1);
+        when(passwordHasher.encode("password123")).thenReturn("encoded-password");
 
         // When
         Result<User> result = userService.createUser(newUser);
@@ -154,6 +228,7 @@ class UserServiceTest {
         assertTrue(result.isSuccess());
         assertNotNull(result.getData());
         assertEquals("newuser", result.getData().getUsername());
+        assertEquals("encoded-password", result.getData().getPassword());
         verify(userMapper, times(1)).findByUsername("newuser");
         verify(userMapper, times(1)).findByEmail("newuser@example.com");
         verify(userMapper, times(1)).insert(any(User.class));
@@ -253,6 +328,17 @@ class UserServiceTest {
         assertTrue(result.isSuccess());
         verify(userMapper, times(1)).selectById(1L);
         verify(userMapper, times(1)).updateById(any(User.class));
+        verify(tokenRevocationService, times(1)).revokeUserTokens(1L);
+    }
+
+    @Test
+    void testAssignRoles_RevokesIssuedTokens() {
+        // When
+        Result<Void> result = userService.assignRoles(1L, List.of(2L));
+
+        // Then 权限声明写在Token中，只清除本地缓存不足以收回权限
+        assertTrue(result.isSuccess());
+        verify(tokenRevocationService, times(1)).revokeUserTokens(1L);
     }
 
     @Test
@@ -274,12 +360,15 @@ class UserServiceTest {
         // Given
         when(userMapper.selectById(1L)).thenReturn(testUser);
         when(userMapper.updateById(any(User.class))).thenReturn(1);
+        when(passwordHasher.matches("password123", testUser.getPassword())).thenReturn(true);
+        when(passwordHasher.encode("newpassword123")).thenReturn("encoded-new-password");
 
         // When
         Result<Void> result = userService.changePassword(1L, "password123", "newpassword123");
 
         // Then
         assertTrue(result.isSuccess());
+        assertEquals("encoded-new-password", testUser.getPassword());
         verify(userMapper, times(1)).selectById(1L);
         verify(userMapper, times(1)).updateById(any(User.class));
     }
@@ -304,13 +393,30 @@ class UserServiceTest {
         // Given
         when(userMapper.selectById(1L)).thenReturn(testUser);
         when(userMapper.updateById(any(User.class))).thenReturn(1);
+        when(passwordHasher.encode("newpassword123")).thenReturn("encoded-new-password");
 
         // When
         Result<Void> result = userService.resetPassword(1L, "newpassword123");
 
         // Then
         assertTrue(result.isSuccess());
+        assertEquals("encoded-new-password", testUser.getPassword());
         verify(userMapper, times(1)).selectById(1L);
         verify(userMapper, times(1)).updateById(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testResetPassword_HasherBusy() {
+        // Given
+        when(userMapper.selectById(1L)).thenReturn(testUser);
+        when(passwordHasher.encode("newpassword123")).thenThrow(new BusinessException(ResultCode.SYSTEM_BUSY));
+
+        // When
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> userService.resetPassword(1L, "newpassword123"));
+
+        // Then
+        assertEquals(ResultCode.SYSTEM_BUSY.getCode(), exception.getCode());
+        verify(userMapper, never()).updateById(any(User.class));
+    }
+}
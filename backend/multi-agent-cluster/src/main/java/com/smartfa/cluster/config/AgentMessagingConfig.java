@@ -0,0 +1,28 @@
+package com.smartfa.cluster.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartfa.cluster.messaging.MessageCodec;
+import com.smartfa.cluster.messaging.RequestCorrelator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 智能体消息组件配置
+ */
+@Configuration
+public class AgentMessagingConfig {
+
+    @Bean
+    public MessageCodec messageCodec(ObjectMapper objectMapper) {
+        return new MessageCodec(objectMapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    public RequestCorrelator requestCorrelator(@Value("${agent.request.wheel-tick-ms:10}") long wheelTickMs,
+                                               @Value("${agent.request.wheel-size:512}") int wheelSize,
+                                               MeterRegistry meterRegistry) {
+        return new RequestCorrelator(wheelTickMs, wheelSize, meterRegistry);
+    }
+}
@@ -4,12 +4,17 @@ import com.smartfa.common.vo.Result;
 import com.smartfa.cluster.dto.AgentCreateDTO;
 import com.smartfa.cluster.dto.AgentUpdateDTO;
 import com.smartfa.cluster.entity.Agent;
+import com.smartfa.cluster.messaging.DeadLetter;
+import com.smartfa.cluster.messaging.DeadLetterReason;
+import com.smartfa.cluster.messaging.SendResult;
 import com.smartfa.cluster.service.AgentService;
+import com.smartfa.cluster.service.DeadLetterService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -29,6 +34,9 @@ public class AgentController {
     @Autowired
     private AgentService agentService;
 
+    @Autowired
+    private DeadLetterService deadLetterService;
+
     @Operation(summary = "创建智能体")
     @PostMapping
     public Result<Agent> createAgent(@Valid @RequestBody AgentCreateDTO agentCreateDTO) {
@@ -176,4 +184,39 @@ public class AgentController {
         List<Agent> agents = agentService.scaleAgents(type, count);
         return Result.success(agents);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "查询死信消息")
+    @GetMapping("/dead-letters")
+    @PreAuthorize("hasAnyAuthority('ADMIN')")
+    public Result<List<DeadLetter>> getDeadLetters(
+            @RequestParam(required = false) String agentId,
+            @RequestParam(required = false) DeadLetterReason reason,
+            @RequestParam(defaultValue = "100") Integer limit) {
+        List<DeadLetter> deadLetters = deadLetterService.getDeadLetters(agentId, reason, limit);
+        return Result.success(deadLetters);
+    }
+
+    @Operation(summary = "重放死信消息")
+    @PostMapping("/dead-letters/{deadLetterId}/replay")
+    @PreAuthorize("hasAnyAuthority('ADMIN')")
+    public Result<SendResult> replayDeadLetter(@PathVariable Long deadLetterId) {
+        SendResult result = deadLetterService.replayDeadLetter(deadLetterId);
+        return Result.success(result);
+    }
+
+    @Operation(summary = "重放智能体的全部死信消息")
+    @PostMapping("/dead-letters/replay")
+    @PreAuthorize("hasAnyAuthority('ADMIN')")
+    public Result<Integer> replayDeadLetters(@RequestParam String agentId) {
+        int delivered = deadLetterService.replayDeadLetters(agentId);
+        return Result.success(delivered);
+    }
+
+    @Operation(summary = "丢弃死信消息")
+    @DeleteMapping("/dead-letters/{deadLetterId}")
+    @PreAuthorize("hasAnyAuthority('ADMIN')")
+    public Result<Void> discardDeadLetter(@PathVariable Long deadLetterId) {
+        deadLetterService.discardDeadLetter(deadLetterId);
+        return Result.success();
+    }
+}
@@ -1,5 +1,7 @@
 package com.smartfa.cluster.dto;
 
+import com.smartfa.cluster.messaging.MessagePayload;
+
 import java.time.LocalDateTime;
 
 /**
@@ -34,6 +36,21 @@ public class MessageDto {
      */
     private String content;
 
+    /**
+     * 类型化消息内容，进程内投递时直接传递对象，不经过序列化
+     */
+    private MessagePayload payload;
+
+    /**
+     * 关联ID，请求与响应使用同一个值
+     */
+    private String correlationId;
+
+    /**
+     * 消息日志偏移，处理完成后用于确认
+     */
+    private Long journalOffset;
+
     /**
      * 消息状态
      */
@@ -109,6 +126,30 @@ public class MessageDto {
         this.content = content;
     }
 
+    public MessagePayload getPayload() {
+        return payload;
+    }
+
+    public void setPayload(MessagePayload payload) {
+        this.payload = payload;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public Long getJournalOffset() {
+        return journalOffset;
+    }
+
+    public void setJournalOffset(Long journalOffset) {
+        this.journalOffset = journalOffset;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -0,0 +1,103 @@
+package com.smartfa.cluster.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * 智能体消息消费者
+ * 每个智能体的消费循环运行在独立的虚拟线程上，邮箱为空时虚拟线程挂起并让出载体线程，
+ * 上万个智能体也只占用少量平台线程。邮箱应使用PARK等待策略，忙等策略会占住载体线程。
+ * 每条消息处理完成后把它的消息日志偏移交给确认回调，处理被中断的消息不确认
+ *
+ * @author SmartFA Team
+ */
+public class AgentConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentConsumer.class);
+
+    private final AgentMailbox mailbox;
+    private final MessageHandler handler;
+    private final int batchSize;
+    private final LongConsumer acknowledger;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private AgentConsumer(AgentMailbox mailbox, MessageHandler handler, int batchSize, LongConsumer acknowledger) {
+        this.mailbox = mailbox;
+        this.handler = handler;
+        this.batchSize = batchSize;
+        this.acknowledger = acknowledger;
+        this.thread = Thread.ofVirtual()
+                .name("agent-consumer-" + mailbox.getAgentId())
+                .unstarted(this::run);
+    }
+
+    /**
+     * 创建并启动消费者
+     *
+     * @param acknowledger 消息日志确认回调，未启用消息日志时为null
+     */
+    public static AgentConsumer start(AgentMailbox mailbox, MessageHandler handler, int batchSize,
+                                      LongConsumer acknowledger) {
+        AgentConsumer consumer = new AgentConsumer(mailbox, handler, batchSize, acknowledger);
+        consumer.thread.start();
+        return consumer;
+    }
+
+    /**
+     * 停止消费：中断消费线程并等待当前批次处理完成
+     *
+     * @return 是否在超时前停止
+     */
+    public boolean stop(long timeoutMs) {
+        running = false;
+        thread.interrupt();
+        try {
+            return thread.join(Duration.ofMillis(timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public String getAgentId() {
+        return mailbox.getAgentId();
+    }
+
+    public boolean isRunning() {
+        return running && thread.isAlive();
+    }
+
+    private void run() {
+        String agentId = mailbox.getAgentId();
+        List<MessageEnvelope> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                mailbox.takeBatch(batch, batchSize);
+            } catch (InterruptedException e) {
+                break;
+            }
+            for (MessageEnvelope envelope : batch) {
+                try {
+                    handler.handle(envelope.toMessageDto(agentId));
+                } catch (InterruptedException e) {
+                    running = false;
+                    continue;
+                } catch (Exception e) {
+                    log.error("智能体消息处理失败: agentId={}, type={}", agentId, envelope.messageType(), e);
+                }
+                if (acknowledger != null && envelope.journalOffset() >= 0) {
+                    acknowledger.accept(envelope.journalOffset());
+                }
+            }
+            batch.clear();
+        }
+        log.debug("智能体消费者已停止: {}", agentId);
+    }
+}
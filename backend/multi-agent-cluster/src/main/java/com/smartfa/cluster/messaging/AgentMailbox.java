@@ -0,0 +1,401 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.common.concurrent.LockFreeRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 有界智能体邮箱
+ * 基于预分配的无锁环形队列（多生产者/单消费者），入队不分配节点、不加锁，
+ * 消费者可按批取出消息。邮箱中存放不可变信封，广播时各邮箱共享同一信封引用。
+ * 消息按类型进入CONTROL、TASK、BULK三个优先级通道，各通道独立排队、按通道应用溢出策略，
+ * 消费时按严格优先级或加权公平在通道间调度；清空、转入死信等管理操作按通道顺序直接取出，不经过调度器。
+ * 容量固定，满时按溢出策略处理并把结果作为背压信号返回给发送方；
+ * 按智能体和通道导出队列深度，按智能体导出投递/丢弃/拒绝计数
+ *
+ * @author SmartFA Team
+ */
+public class AgentMailbox {
+
+    private static final MessageLane[] LANES = MessageLane.values();
+
+    private final String agentId;
+    private final MailboxOverflowPolicy overflowPolicy;
+    private final WaitStrategy waitStrategy;
+    private final LaneScheduling laneScheduling;
+    private final long blockTimeoutNanos;
+    private final LockFreeRingBuffer<MessageEnvelope>[] buffers;
+    private final Consumer<MessageEnvelope> dropListener;
+
+    /**
+     * 加权公平调度的当前通道和剩余额度，由schedulerLock保护。
+     * 通常只有一个消费者，锁无竞争；拉取接口与订阅的消费者并发取消息时额度计数也不会错乱
+     */
+    private final ReentrantLock schedulerLock = new ReentrantLock();
+    private int currentLane;
+    private int remainingCredits = LANES[0].weight();
+
+    /**
+     * PARK策略下正在等待消息的线程：订阅的消费者和拉取接口的调用方可能同时等待，投递时全部唤醒
+     */
+    private final Set<Thread> waitingConsumers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 写消息日志并首次尝试入队时持有，保证同一邮箱的日志顺序与入队顺序一致；
+     * BLOCK策略下等待空位在锁外进行，不会让其他发送方排队等待整个阻塞超时
+     */
+    private final ReentrantLock journalLock = new ReentrantLock();
+
+    private final MeterRegistry meterRegistry;
+    private final Counter deliveredCounter;
+    private final Counter droppedCounter;
+    private final Counter rejectedCounter;
+    private final List<Meter> meters;
+
+    /**
+     * @param dropListener DROP_OLDEST策略下被挤出邮箱的消息，在发送方线程上回调
+     */
+    @SuppressWarnings("unchecked")
+    public AgentMailbox(String agentId, int capacity, MailboxOverflowPolicy overflowPolicy,
+                        WaitStrategy waitStrategy, LaneScheduling laneScheduling, long blockTimeoutMs,
+                        Consumer<MessageEnvelope> dropListener, MeterRegistry meterRegistry) {
+        this.agentId = agentId;
+        this.dropListener = dropListener;
+        this.overflowPolicy = overflowPolicy;
+        this.waitStrategy = waitStrategy;
+        this.laneScheduling = laneScheduling;
+        this.blockTimeoutNanos = blockTimeoutMs * 1_000_000L;
+        this.meterRegistry = meterRegistry;
+
+        List<Meter> registered = new ArrayList<>();
+        this.buffers = new LockFreeRingBuffer[LANES.length];
+        for (MessageLane lane : LANES) {
+            LockFreeRingBuffer<MessageEnvelope> buffer = new LockFreeRingBuffer<>(lane.capacityOf(capacity));
+            buffers[lane.ordinal()] = buffer;
+            registered.add(Gauge.builder("agent.mailbox.depth", buffer, LockFreeRingBuffer::size)
+                    .tag("agent", agentId)
+                    .tag("lane", lane.name())
+                    .description("智能体邮箱各通道中待处理的消息数")
+                    .register(meterRegistry));
+        }
+        this.deliveredCounter = messageCounter("delivered");
+        this.droppedCounter = messageCounter("dropped");
+        this.rejectedCounter = messageCounter("rejected");
+        registered.add(deliveredCounter);
+        registered.add(droppedCounter);
+        registered.add(rejectedCounter);
+        this.meters = List.copyOf(registered);
+    }
+
+    /**
+     * 投递消息到其类型对应的通道
+     *
+     * @return 投递结果
+     */
+    public SendResult offer(MessageEnvelope message) {
+        return offer(message, true);
+    }
+
+    /**
+     * 投递消息但不等待：BLOCK策略下通道已满时直接返回null，由调用方释放锁后再调用offer等待空位
+     *
+     * @return 投递结果，需要等待空位时返回null
+     */
+    public SendResult tryOffer(MessageEnvelope message) {
+        return offer(message, false);
+    }
+
+    private SendResult offer(MessageEnvelope message, boolean wait) {
+        LockFreeRingBuffer<MessageEnvelope> buffer = buffers[MessageLane.of(message).ordinal()];
+        SendResult result;
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                result = offerDropOldest(buffer, message);
+                break;
+            case BLOCK:
+                if (wait) {
+                    result = offerBlocking(buffer, message);
+                } else if (buffer.offer(message)) {
+                    result = SendResult.DELIVERED;
+                } else {
+                    return null;
+                }
+                break;
+            case REJECT:
+            default:
+                result = buffer.offer(message) ? SendResult.DELIVERED : SendResult.REJECTED_FULL;
+                break;
+        }
+        if (result.isAccepted()) {
+            deliveredCounter.increment();
+            signalConsumer();
+        } else {
+            rejectedCounter.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 阻塞获取消息，按等待策略等待
+     */
+    public MessageEnvelope take() throws InterruptedException {
+        MessageEnvelope message = poll();
+        while (message == null) {
+            awaitMessage();
+            message = poll();
+        }
+        return message;
+    }
+
+    /**
+     * 非阻塞获取消息，按通道调度方式选择通道
+     *
+     * @return 邮箱为空时返回null
+     */
+    public MessageEnvelope poll() {
+        return laneScheduling == LaneScheduling.STRICT ? pollStrict() : pollWeighted();
+    }
+
+    /**
+     * 非阻塞批量取出消息
+     *
+     * @param batch 接收消息的集合
+     * @param maxMessages 最多取出的消息数
+     * @return 实际取出的消息数
+     */
+    public int drainTo(Collection<? super MessageEnvelope> batch, int maxMessages) {
+        int drained = 0;
+        while (drained < maxMessages) {
+            MessageEnvelope message = poll();
+            if (message == null) {
+                break;
+            }
+            batch.add(message);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * 阻塞批量取出消息：等到至少一条消息后，把已到达的消息一次性取出
+     *
+     * @return 实际取出的消息数
+     */
+    public int takeBatch(Collection<? super MessageEnvelope> batch, int maxMessages) throws InterruptedException {
+        if (maxMessages <= 0) {
+            return 0;
+        }
+        batch.add(take());
+        return 1 + drainTo(batch, maxMessages - 1);
+    }
+
+    /**
+     * 当前消息数
+     */
+    public int size() {
+        int size = 0;
+        for (LockFreeRingBuffer<MessageEnvelope> buffer : buffers) {
+            size += buffer.size();
+        }
+        return size;
+    }
+
+    /**
+     * 各通道当前消息数
+     */
+    public Map<MessageLane, Integer> laneSizes() {
+        Map<MessageLane, Integer> sizes = new EnumMap<>(MessageLane.class);
+        for (MessageLane lane : LANES) {
+            sizes.put(lane, buffers[lane.ordinal()].size());
+        }
+        return sizes;
+    }
+
+    /**
+     * 邮箱容量（各通道容量之和，通道容量向上取整为2的幂）
+     */
+    public int capacity() {
+        int capacity = 0;
+        for (LockFreeRingBuffer<MessageEnvelope> buffer : buffers) {
+            capacity += buffer.capacity();
+        }
+        return capacity;
+    }
+
+    /**
+     * 按通道优先级取出全部消息，不经过加权调度，供注销、清空等非消费者线程调用
+     *
+     * @param sink 接收取出的消息
+     * @return 取出的消息数
+     */
+    public int drainAll(Consumer<? super MessageEnvelope> sink) {
+        int drained = 0;
+        for (LockFreeRingBuffer<MessageEnvelope> buffer : buffers) {
+            MessageEnvelope message;
+            while ((message = buffer.poll()) != null) {
+                sink.accept(message);
+                drained++;
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * 清空邮箱
+     *
+     * @return 被清除的消息数
+     */
+    public int clear() {
+        return drainAll(message -> { });
+    }
+
+    /**
+     * 关闭邮箱并注销指标
+     */
+    public void close() {
+        meters.forEach(meterRegistry::remove);
+        signalConsumer();
+    }
+
+    public ReentrantLock getJournalLock() {
+        return journalLock;
+    }
+
+    public String getAgentId() {
+        return agentId;
+    }
+
+    public long getDroppedCount() {
+        return (long) droppedCounter.count();
+    }
+
+    public long getRejectedCount() {
+        return (long) rejectedCounter.count();
+    }
+
+    /**
+     * PARK策略下正在等待消息的线程数
+     */
+    int getWaitingCount() {
+        return waitingConsumers.size();
+    }
+
+    private MessageEnvelope pollStrict() {
+        for (LockFreeRingBuffer<MessageEnvelope> buffer : buffers) {
+            MessageEnvelope message = buffer.poll();
+            if (message != null) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 加权轮询：当前通道额度用完或为空时切换到下一通道并重置额度，
+     * 最多绕一圈，所有通道都为空时返回null
+     */
+    private MessageEnvelope pollWeighted() {
+        schedulerLock.lock();
+        try {
+            for (int i = 0; i <= LANES.length; i++) {
+                if (remainingCredits > 0) {
+                    MessageEnvelope message = buffers[currentLane].poll();
+                    if (message != null) {
+                        remainingCredits--;
+                        return message;
+                    }
+                }
+                currentLane = (currentLane + 1) % LANES.length;
+                remainingCredits = LANES[currentLane].weight();
+            }
+            return null;
+        } finally {
+            schedulerLock.unlock();
+        }
+    }
+
+    private boolean isEmpty() {
+        for (LockFreeRingBuffer<MessageEnvelope> buffer : buffers) {
+            if (!buffer.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SendResult offerDropOldest(LockFreeRingBuffer<MessageEnvelope> buffer, MessageEnvelope message) {
+        boolean dropped = false;
+        while (!buffer.offer(message)) {
+            MessageEnvelope oldest = buffer.poll();
+            if (oldest != null) {
+                droppedCounter.increment();
+                dropped = true;
+                dropListener.accept(oldest);
+            }
+        }
+        return dropped ? SendResult.DELIVERED_DROPPED_OLDEST : SendResult.DELIVERED;
+    }
+
+    private SendResult offerBlocking(LockFreeRingBuffer<MessageEnvelope> buffer, MessageEnvelope message) {
+        if (buffer.offer(message)) {
+            return SendResult.DELIVERED;
+        }
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            waitStrategy.backOff();
+            if (buffer.offer(message)) {
+                return SendResult.DELIVERED;
+            }
+        }
+        return SendResult.TIMEOUT;
+    }
+
+    private void awaitMessage() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (waitStrategy != WaitStrategy.PARK) {
+            waitStrategy.idle();
+            return;
+        }
+        Thread current = Thread.currentThread();
+        waitingConsumers.add(current);
+        try {
+            // 登记后再检查一次，避免与生产者的唤醒交错导致漏唤醒
+            if (isEmpty()) {
+                waitStrategy.idle();
+            }
+        } finally {
+            waitingConsumers.remove(current);
+        }
+    }
+
+    private void signalConsumer() {
+        if (!waitingConsumers.isEmpty()) {
+            waitingConsumers.forEach(LockSupport::unpark);
+        }
+    }
+
+    private Counter messageCounter(String outcome) {
+        return Counter.builder("agent.mailbox.messages")
+                .tag("agent", agentId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
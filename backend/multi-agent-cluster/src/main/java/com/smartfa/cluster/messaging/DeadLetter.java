@@ -0,0 +1,106 @@
+package com.smartfa.cluster.messaging;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.smartfa.cluster.dto.MessageDto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 死信：未能投递到目标智能体的消息及其重投状态
+ *
+ * @author SmartFA Team
+ */
+public class DeadLetter {
+
+    private final long id;
+    private final String agentId;
+    private final MessageEnvelope envelope;
+    private final LocalDateTime createTime;
+
+    private volatile DeadLetterReason reason;
+    private volatile int attempts;
+    private volatile long nextAttemptAtMillis;
+    private final AtomicBoolean delivering = new AtomicBoolean();
+
+    DeadLetter(long id, String agentId, MessageEnvelope envelope, DeadLetterReason reason) {
+        this.id = id;
+        this.agentId = agentId;
+        this.envelope = envelope;
+        this.reason = reason;
+        this.createTime = LocalDateTime.now();
+        this.nextAttemptAtMillis = System.currentTimeMillis();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getAgentId() {
+        return agentId;
+    }
+
+    public DeadLetterReason getReason() {
+        return reason;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    /**
+     * 下次自动重投时间，不再自动重投时为null
+     */
+    public LocalDateTime getNextRetryTime() {
+        if (!reason.isRetryable()) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(nextAttemptAtMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 原始消息
+     */
+    public MessageDto getMessage() {
+        return envelope.toMessageDto(agentId);
+    }
+
+    @JsonIgnore
+    public MessageEnvelope getEnvelope() {
+        return envelope;
+    }
+
+    boolean isDue(long nowMillis) {
+        return reason.isRetryable() && nextAttemptAtMillis <= nowMillis;
+    }
+
+    void scheduleRetry(long nowMillis, long backoffMillis) {
+        attempts++;
+        nextAttemptAtMillis = nowMillis + backoffMillis;
+    }
+
+    /**
+     * 占用重投权，避免定时任务和手动重放同时投递同一条死信
+     */
+    boolean tryClaim() {
+        return delivering.compareAndSet(false, true);
+    }
+
+    void release() {
+        delivering.set(false);
+    }
+
+    void retryNow() {
+        nextAttemptAtMillis = System.currentTimeMillis();
+    }
+
+    void exhaust() {
+        reason = DeadLetterReason.RETRIES_EXHAUSTED;
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 死信原因
+ *
+ * @author SmartFA Team
+ */
+public enum DeadLetterReason {
+
+    /**
+     * 目标智能体未连接或未注册
+     */
+    NOT_CONNECTED(true),
+
+    /**
+     * 邮箱已满被拒绝
+     */
+    MAILBOX_FULL(true),
+
+    /**
+     * 等待邮箱空间超时
+     */
+    TIMEOUT(true),
+
+    /**
+     * 智能体注销或重新注册时邮箱中尚未处理的消息
+     */
+    UNREGISTERED(true),
+
+    /**
+     * 清空邮箱时移出的消息，只能手动重放
+     */
+    CLEARED(false),
+
+    /**
+     * 自动重投次数用尽，只能手动重放
+     */
+    RETRIES_EXHAUSTED(false);
+
+    private final boolean retryable;
+
+    DeadLetterReason(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    /**
+     * 是否自动重投
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * 由投递结果得到死信原因
+     */
+    public static DeadLetterReason of(SendResult result) {
+        switch (result) {
+            case REJECTED_FULL:
+                return MAILBOX_FULL;
+            case TIMEOUT:
+                return TIMEOUT;
+            default:
+                return NOT_CONNECTED;
+        }
+    }
+}
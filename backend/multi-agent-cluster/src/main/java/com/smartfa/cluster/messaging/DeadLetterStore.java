@@ -0,0 +1,159 @@
+package com.smartfa.cluster.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 死信存储
+ * 按ID有序保存，超过容量时淘汰最早的死信并交给淘汰回调；按原因统计进入死信的消息数。
+ * 可重试的死信按指数退避重投，达到最大次数后转为RETRIES_EXHAUSTED，只能手动重放
+ *
+ * @author SmartFA Team
+ */
+public class DeadLetterStore {
+
+    private final int capacity;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxAttempts;
+    private final ConcurrentSkipListMap<Long, DeadLetter> letters = new ConcurrentSkipListMap<>();
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final Consumer<DeadLetter> evictionListener;
+
+    private final Map<DeadLetterReason, Counter> addedCounters = new EnumMap<>(DeadLetterReason.class);
+    private final Counter evictedCounter;
+
+    /**
+     * @param evictionListener 超过容量被淘汰的死信，在加入死信的线程上回调
+     */
+    public DeadLetterStore(int capacity, long initialBackoffMs, long maxBackoffMs, int maxAttempts,
+                           Consumer<DeadLetter> evictionListener, MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.evictionListener = evictionListener;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxAttempts = maxAttempts;
+        for (DeadLetterReason reason : DeadLetterReason.values()) {
+            addedCounters.put(reason, Counter.builder("agent.dead_letter.added")
+                    .tag("reason", reason.name())
+                    .description("进入死信队列的消息数")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("agent.dead_letter.size", letters, Map::size)
+                .description("死信队列中的消息数")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("agent.dead_letter.evicted")
+                .description("超过容量被淘汰的死信数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 加入死信
+     */
+    public DeadLetter add(String agentId, MessageEnvelope envelope, DeadLetterReason reason) {
+        DeadLetter letter = new DeadLetter(idGenerator.incrementAndGet(), agentId, envelope, reason);
+        letters.put(letter.getId(), letter);
+        addedCounters.get(reason).increment();
+        Map.Entry<Long, DeadLetter> evicted;
+        while (letters.size() > capacity && (evicted = letters.pollFirstEntry()) != null) {
+            evictedCounter.increment();
+            evictionListener.accept(evicted.getValue());
+        }
+        return letter;
+    }
+
+    public DeadLetter get(long id) {
+        return letters.get(id);
+    }
+
+    /**
+     * 移除死信
+     *
+     * @return 死信不存在时返回false
+     */
+    public boolean remove(DeadLetter letter) {
+        return letters.remove(letter.getId(), letter);
+    }
+
+    /**
+     * 按条件查询，按加入顺序返回
+     *
+     * @param agentId 目标智能体，为null时不限
+     * @param reason 死信原因，为null时不限
+     * @param limit 最多返回条数
+     */
+    public List<DeadLetter> list(String agentId, DeadLetterReason reason, int limit) {
+        return letters.values().stream()
+                .filter(letter -> agentId == null || agentId.equals(letter.getAgentId()))
+                .filter(letter -> reason == null || reason == letter.getReason())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * 某个智能体的全部死信
+     */
+    public List<DeadLetter> forAgent(String agentId) {
+        return list(agentId, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 已到重投时间的死信
+     */
+    public List<DeadLetter> due() {
+        long now = System.currentTimeMillis();
+        return letters.values().stream().filter(letter -> letter.isDue(now)).toList();
+    }
+
+    /**
+     * 智能体恢复连接时，把它的可重试死信提前到现在
+     */
+    public void retryNow(String agentId) {
+        letters.values().stream()
+                .filter(letter -> agentId.equals(letter.getAgentId()))
+                .forEach(DeadLetter::retryNow);
+    }
+
+    /**
+     * 重投死信：成功后移除，失败时按指数退避安排下次重投
+     *
+     * @param deliverer 实际投递动作
+     * @return 投递结果；死信正由其他线程投递时返回null
+     */
+    public SendResult redeliver(DeadLetter letter, Function<DeadLetter, SendResult> deliverer) {
+        if (!letter.tryClaim()) {
+            return null;
+        }
+        try {
+            SendResult result = deliverer.apply(letter);
+            if (result.isAccepted()) {
+                letters.remove(letter.getId(), letter);
+            } else if (letter.getReason().isRetryable()) {
+                letter.scheduleRetry(System.currentTimeMillis(), backoff(letter.getAttempts()));
+                if (letter.getAttempts() >= maxAttempts) {
+                    letter.exhaust();
+                }
+            }
+            return result;
+        } finally {
+            letter.release();
+        }
+    }
+
+    public int size() {
+        return letters.size();
+    }
+
+    private long backoff(int attempts) {
+        return Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts, 20));
+    }
+}
@@ -0,0 +1,93 @@
+package com.smartfa.cluster.messaging;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 已编码消息的零拷贝视图
+ * 只扫描一次消息头记录各字段偏移，读取单个字段或内容切片时不解码整条消息、不复制底层字节
+ *
+ * @author SmartFA Team
+ */
+public final class EncodedMessage {
+
+    private final ByteBuffer buffer;
+    private final int fromOffset;
+    private final int messageTypeOffset;
+    private final int statusOffset;
+    private final int correlationIdOffset;
+    private final int payloadOffset;
+    private final int payloadLength;
+
+    private EncodedMessage(ByteBuffer buffer) {
+        this.buffer = buffer;
+        ByteBuffer in = buffer.duplicate();
+        in.position(2);
+        MessageCodec.readVarLong(in);
+        MessageCodec.skipNullableLong(in);
+        if (in.get(in.position()) != 0) {
+            MessageCodec.skipNullableLong(in);
+            MessageCodec.readVarLong(in);
+        } else {
+            in.get();
+        }
+        this.fromOffset = in.position();
+        MessageCodec.skipString(in);
+        this.messageTypeOffset = in.position();
+        MessageCodec.skipString(in);
+        this.statusOffset = in.position();
+        MessageCodec.skipString(in);
+        this.correlationIdOffset = in.position();
+        MessageCodec.skipString(in);
+        this.payloadLength = (int) MessageCodec.readVarLong(in);
+        this.payloadOffset = in.position();
+    }
+
+    /**
+     * 包装已编码的消息，不复制字节
+     */
+    public static EncodedMessage wrap(ByteBuffer encoded) {
+        ByteBuffer buffer = encoded.slice();
+        if (buffer.get(0) != MessageCodec.VERSION) {
+            throw new IllegalArgumentException("不支持的消息编码版本: " + buffer.get(0));
+        }
+        return new EncodedMessage(buffer);
+    }
+
+    public PayloadType payloadType() {
+        return PayloadType.fromTag(buffer.get(1));
+    }
+
+    public long timestamp() {
+        return MessageCodec.readVarLong(buffer.duplicate().position(2));
+    }
+
+    public String fromAgentId() {
+        return MessageCodec.readString(buffer.duplicate().position(fromOffset));
+    }
+
+    public String messageType() {
+        return MessageCodec.readString(buffer.duplicate().position(messageTypeOffset));
+    }
+
+    public String status() {
+        return MessageCodec.readString(buffer.duplicate().position(statusOffset));
+    }
+
+    public String correlationId() {
+        return MessageCodec.readString(buffer.duplicate().position(correlationIdOffset));
+    }
+
+    /**
+     * 内容部分的切片，与原缓冲区共享字节
+     */
+    public ByteBuffer payload() {
+        return buffer.slice(payloadOffset, payloadLength);
+    }
+
+    /**
+     * 整条消息的只读视图
+     */
+    public ByteBuffer buffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+}
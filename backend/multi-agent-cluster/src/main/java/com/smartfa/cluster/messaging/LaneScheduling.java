@@ -0,0 +1,19 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 邮箱通道之间的调度方式
+ *
+ * @author SmartFA Team
+ */
+public enum LaneScheduling {
+
+    /**
+     * 严格优先级：高优先级通道为空时才取低优先级通道
+     */
+    STRICT,
+
+    /**
+     * 加权公平：按通道权重轮流取出，高优先级优先但不会饿死低优先级
+     */
+    WEIGHTED
+}
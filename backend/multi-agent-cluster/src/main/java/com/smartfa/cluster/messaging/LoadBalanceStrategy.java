@@ -0,0 +1,19 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 主题内的负载均衡策略
+ *
+ * @author SmartFA Team
+ */
+public enum LoadBalanceStrategy {
+
+    /**
+     * 轮询
+     */
+    ROUND_ROBIN,
+
+    /**
+     * 邮箱深度最小优先：随机取两个候选，选择积压较少的一个（power of two choices）
+     */
+    LEAST_DEPTH
+}
@@ -0,0 +1,24 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 智能体邮箱溢出策略
+ *
+ * @author SmartFA Team
+ */
+public enum MailboxOverflowPolicy {
+
+    /**
+     * 邮箱已满时拒绝新消息
+     */
+    REJECT,
+
+    /**
+     * 邮箱已满时丢弃最旧的消息
+     */
+    DROP_OLDEST,
+
+    /**
+     * 邮箱已满时等待，超时后拒绝
+     */
+    BLOCK
+}
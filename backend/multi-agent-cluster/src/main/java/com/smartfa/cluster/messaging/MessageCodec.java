@@ -0,0 +1,358 @@
+package com.smartfa.cluster.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 消息二进制编解码器
+ * <p>
+ * 格式：版本(1字节) | 内容类型(1字节) | 时间戳(varint) | 消息ID(可空) | 发送时间(可空) |
+ * 发送方 | 消息类型 | 状态 | 关联ID | 内容长度(varint) | 内容。
+ * 字符串为varint长度前缀的UTF-8（长度+1，0表示null），整数使用zigzag varint；
+ * 内容中的任意值带类型标记，无法直接表示的对象退化为JSON字符串
+ *
+ * @author SmartFA Team
+ */
+public class MessageCodec {
+
+    static final byte VERSION = 1;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_FALSE = 1;
+    private static final byte VALUE_TRUE = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_DOUBLE = 4;
+    private static final byte VALUE_STRING = 5;
+    private static final byte VALUE_MAP = 6;
+    private static final byte VALUE_LIST = 7;
+    private static final byte VALUE_JSON = 8;
+
+    private final ObjectMapper objectMapper;
+
+    public MessageCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 编码信封
+     *
+     * @return 只读缓冲区，position为0
+     */
+    public ByteBuffer encode(MessageEnvelope envelope) {
+        MessagePayload payload = envelope.payload();
+        Output body = new Output(64);
+        writePayload(body, envelope, payload);
+
+        Output out = new Output(body.size + 64);
+        out.writeByte(VERSION);
+        out.writeByte(payload != null ? payload.type().tag() : PayloadType.NONE.tag());
+        out.writeVarLong(envelope.timestamp());
+        writeNullableLong(out, envelope.id());
+        LocalDateTime sendTime = envelope.sendTime();
+        writeNullableLong(out, sendTime != null ? sendTime.toEpochSecond(ZoneOffset.UTC) : null);
+        if (sendTime != null) {
+            out.writeVarLong(sendTime.getNano());
+        }
+        out.writeString(envelope.fromAgentId());
+        out.writeString(envelope.messageType());
+        out.writeString(envelope.status());
+        out.writeString(envelope.correlationId());
+        out.writeVarLong(body.size);
+        out.writeBytes(body.bytes, body.size);
+        return ByteBuffer.wrap(out.bytes, 0, out.size).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 解码信封，不修改传入缓冲区的position
+     */
+    public MessageEnvelope decode(ByteBuffer buffer) {
+        ByteBuffer in = buffer.duplicate();
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的消息编码版本: " + version);
+        }
+        PayloadType payloadType = PayloadType.fromTag(in.get());
+        long timestamp = readVarLong(in);
+        Long id = readNullableLong(in);
+        Long sendSeconds = readNullableLong(in);
+        LocalDateTime sendTime = sendSeconds != null
+                ? LocalDateTime.ofEpochSecond(sendSeconds, (int) readVarLong(in), ZoneOffset.UTC)
+                : null;
+        String fromAgentId = readString(in);
+        String messageType = readString(in);
+        String status = readString(in);
+        String correlationId = readString(in);
+        readVarLong(in);
+
+        String content = null;
+        MessagePayload payload = null;
+        if (payloadType == PayloadType.NONE) {
+            content = (String) readValue(in);
+        } else {
+            payload = readPayload(in, payloadType);
+        }
+        return new MessageEnvelope(id, fromAgentId, messageType, content, payload, status, correlationId, sendTime, timestamp);
+    }
+
+    private void writePayload(Output out, MessageEnvelope envelope, MessagePayload payload) {
+        if (payload == null) {
+            writeValue(out, envelope.content());
+            return;
+        }
+        switch (payload) {
+            case MessagePayload.TaskAssignment p -> {
+                out.writeString(p.taskId());
+                out.writeString(p.taskType());
+                writeValue(out, p.taskData());
+            }
+            case MessagePayload.TaskStatus p -> {
+                out.writeString(p.taskId());
+                out.writeString(p.status());
+                writeValue(out, p.result());
+            }
+            case MessagePayload.CollaborationRequest p -> {
+                out.writeString(p.taskId());
+                out.writeString(p.requiredCapability());
+                writeValue(out, p.requestData());
+            }
+            case MessagePayload.CollaborationResponse p -> {
+                out.writeString(p.taskId());
+                out.writeByte(p.canCollaborate() ? VALUE_TRUE : VALUE_FALSE);
+                writeValue(out, p.responseData());
+            }
+            case MessagePayload.Heartbeat p -> {
+                out.writeString(p.agentId());
+                writeValue(out, p.status());
+                out.writeVarLong(p.timestamp());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private MessagePayload readPayload(ByteBuffer in, PayloadType payloadType) {
+        return switch (payloadType) {
+            case TASK_ASSIGNMENT -> new MessagePayload.TaskAssignment(readString(in), readString(in), readValue(in));
+            case TASK_STATUS -> new MessagePayload.TaskStatus(readString(in), readString(in), readValue(in));
+            case COLLABORATION_REQUEST ->
+                    new MessagePayload.CollaborationRequest(readString(in), readString(in), readValue(in));
+            case COLLABORATION_RESPONSE ->
+                    new MessagePayload.CollaborationResponse(readString(in), in.get() == VALUE_TRUE, readValue(in));
+            case HEARTBEAT -> new MessagePayload.Heartbeat(readString(in),
+                    (Map<String, Object>) readValue(in), readVarLong(in));
+            case NONE -> throw new IllegalArgumentException("NONE类型没有类型化内容");
+        };
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(bool ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(VALUE_LONG);
+            out.writeVarLong(zigzag(((Number) value).longValue()));
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof CharSequence text) {
+            out.writeByte(VALUE_STRING);
+            out.writeString(text.toString());
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(VALUE_MAP);
+            out.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                out.writeString(String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Collection<?> collection) {
+            out.writeByte(VALUE_LIST);
+            out.writeVarLong(collection.size());
+            for (Object element : collection) {
+                writeValue(out, element);
+            }
+        } else {
+            out.writeByte(VALUE_JSON);
+            try {
+                out.writeString(objectMapper.writeValueAsString(value));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("消息内容无法编码: " + value.getClass().getName(), e);
+            }
+        }
+    }
+
+    private Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_LONG:
+                return unzigzag(readVarLong(in));
+            case VALUE_DOUBLE:
+                return Double.longBitsToDouble(in.getLong());
+            case VALUE_STRING:
+                return readString(in);
+            case VALUE_MAP: {
+                int size = (int) readVarLong(in);
+                Map<String, Object> map = new LinkedHashMap<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            }
+            case VALUE_LIST: {
+                int size = (int) readVarLong(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case VALUE_JSON:
+                try {
+                    return objectMapper.readValue(readString(in), Object.class);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("消息内容无法解码", e);
+                }
+            default:
+                throw new IllegalArgumentException("未知的值类型标记: " + tag);
+        }
+    }
+
+    private static void writeNullableLong(Output out, Long value) {
+        if (value == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(1);
+            out.writeVarLong(zigzag(value));
+        }
+    }
+
+    private static Long readNullableLong(ByteBuffer in) {
+        return in.get() == 0 ? null : unzigzag(readVarLong(in));
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("varint过长");
+            }
+        }
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+
+    static void skipString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length > 0) {
+            in.position(in.position() + length);
+        }
+    }
+
+    static void skipNullableLong(ByteBuffer in) {
+        if (in.get() != 0) {
+            readVarLong(in);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 可增长的字节输出
+     */
+    private static final class Output {
+
+        private byte[] bytes;
+        private int size;
+
+        private Output(int initialCapacity) {
+            this.bytes = new byte[initialCapacity];
+        }
+
+        private void ensure(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] source, int length) {
+            ensure(length);
+            System.arraycopy(source, 0, bytes, size, length);
+            size += length;
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            writeBytes(utf8, utf8.length);
+        }
+    }
+}
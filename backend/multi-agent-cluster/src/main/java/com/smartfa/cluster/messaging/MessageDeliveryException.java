@@ -0,0 +1,20 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 消息未能投递
+ *
+ * @author SmartFA Team
+ */
+public class MessageDeliveryException extends RuntimeException {
+
+    private final SendResult sendResult;
+
+    public MessageDeliveryException(SendResult sendResult) {
+        super("消息投递失败: " + sendResult);
+        this.sendResult = sendResult;
+    }
+
+    public SendResult getSendResult() {
+        return sendResult;
+    }
+}
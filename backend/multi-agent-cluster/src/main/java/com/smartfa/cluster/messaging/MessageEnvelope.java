@@ -0,0 +1,155 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.dto.MessageDto;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * 不可变消息信封
+ * 发送时从MessageDto复制一次，之后在各接收方邮箱之间按引用共享；
+ * 接收方等逐个接收者的元数据不放在信封内，由所在邮箱在取出时补上。
+ * 进程内投递直接传递类型化内容，需要二进制形式时只编码一次并缓存，各接收方共享同一份字节。
+ * 写入消息日志后由withJournalOffset生成带日志偏移的副本，偏移不参与编码
+ *
+ * @author SmartFA Team
+ */
+public final class MessageEnvelope {
+
+    private final Long id;
+    private final String fromAgentId;
+    private final String messageType;
+    private final String content;
+    private final MessagePayload payload;
+    private final String status;
+    private final String correlationId;
+    private final LocalDateTime sendTime;
+    private final long timestamp;
+    private final long journalOffset;
+
+    private volatile ByteBuffer encoded;
+
+    public MessageEnvelope(Long id, String fromAgentId, String messageType, String content,
+                           MessagePayload payload, String status, String correlationId,
+                           LocalDateTime sendTime, long timestamp) {
+        this(id, fromAgentId, messageType, content, payload, status, correlationId, sendTime, timestamp, -1L, null);
+    }
+
+    private MessageEnvelope(Long id, String fromAgentId, String messageType, String content,
+                            MessagePayload payload, String status, String correlationId,
+                            LocalDateTime sendTime, long timestamp, long journalOffset, ByteBuffer encoded) {
+        this.id = id;
+        this.fromAgentId = fromAgentId;
+        this.messageType = messageType;
+        this.content = content;
+        this.payload = payload;
+        this.status = status;
+        this.correlationId = correlationId;
+        this.sendTime = sendTime;
+        this.timestamp = timestamp;
+        this.journalOffset = journalOffset;
+        this.encoded = encoded;
+    }
+
+    /**
+     * 从MessageDto创建信封，不修改原消息
+     */
+    public static MessageEnvelope of(String fromAgentId, MessageDto message) {
+        return new MessageEnvelope(
+                message.getId(),
+                fromAgentId,
+                message.getMessageType(),
+                message.getContent(),
+                message.getPayload(),
+                message.getStatus(),
+                message.getCorrelationId(),
+                message.getSendTime(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * 生成带消息日志偏移的副本，共享已缓存的编码
+     */
+    public MessageEnvelope withJournalOffset(long offset) {
+        return new MessageEnvelope(id, fromAgentId, messageType, content, payload, status, correlationId,
+                sendTime, timestamp, offset, encoded);
+    }
+
+    /**
+     * 按接收方生成MessageDto，消息内容按引用复用
+     */
+    public MessageDto toMessageDto(String toAgentId) {
+        MessageDto message = new MessageDto();
+        message.setId(id);
+        message.setFromAgentId(fromAgentId);
+        message.setToAgentId(toAgentId);
+        message.setMessageType(messageType);
+        message.setContent(content);
+        message.setPayload(payload);
+        message.setStatus(status);
+        message.setCorrelationId(correlationId);
+        message.setSendTime(sendTime);
+        message.setTimestamp(timestamp);
+        if (journalOffset >= 0) {
+            message.setJournalOffset(journalOffset);
+        }
+        return message;
+    }
+
+    /**
+     * 二进制编码，首次调用时编码并缓存
+     *
+     * @return 共享底层字节的只读视图，调用方可自由移动position
+     */
+    public ByteBuffer encoded(MessageCodec codec) {
+        ByteBuffer buffer = encoded;
+        if (buffer == null) {
+            buffer = codec.encode(this);
+            encoded = buffer;
+        }
+        return buffer.duplicate();
+    }
+
+    public Long id() {
+        return id;
+    }
+
+    public String fromAgentId() {
+        return fromAgentId;
+    }
+
+    public String messageType() {
+        return messageType;
+    }
+
+    public String content() {
+        return content;
+    }
+
+    public MessagePayload payload() {
+        return payload;
+    }
+
+    public String status() {
+        return status;
+    }
+
+    public String correlationId() {
+        return correlationId;
+    }
+
+    public LocalDateTime sendTime() {
+        return sendTime;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 消息日志偏移，未写入日志时为-1
+     */
+    public long journalOffset() {
+        return journalOffset;
+    }
+}
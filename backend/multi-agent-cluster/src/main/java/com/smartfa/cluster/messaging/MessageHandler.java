@@ -0,0 +1,17 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.dto.MessageDto;
+
+/**
+ * 智能体消息处理器
+ *
+ * @author SmartFA Team
+ */
+@FunctionalInterface
+public interface MessageHandler {
+
+    /**
+     * 处理一条消息，抛出的异常会被记录，不会中断消费循环
+     */
+    void handle(MessageDto message) throws Exception;
+}
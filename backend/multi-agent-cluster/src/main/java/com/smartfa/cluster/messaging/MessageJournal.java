@@ -0,0 +1,510 @@
+package com.smartfa.cluster.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 智能体消息日志
+ * <p>
+ * 追加写入固定大小的内存映射分段文件，文件名为分段起始偏移。记录格式：
+ * 长度(int) | CRC32C(int) | 记录类型(1字节) | 接收方长度(short) | 接收方 | 内容，
+ * 消息记录的内容为MessageCodec编码，作废记录的内容为被作废消息的偏移。长度最后写入，
+ * 恢复时遇到长度为0或校验失败即视为日志末尾。
+ * <p>
+ * 刷盘由后台线程按固定间隔统一force（组提交），开启同步模式时发送方等待所在批次刷盘后返回。
+ * 每个智能体跟踪已写入但未确认的偏移，确认偏移按低水位推进（最小未确认偏移之前），
+ * 优先级通道乱序消费时不会越过尚未处理的消息。启动时把确认偏移之后的消息按智能体建立索引，
+ * 智能体重新注册时回放。从最早分段起连续的、所有消息都已确认的分段会被删除：作废记录总在其目标消息之后写入，
+ * 只删前缀可保证作废记录不会先于被作废的消息删除
+ *
+ * @author SmartFA Team
+ */
+public class MessageJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String OFFSETS_FILE = "offsets.properties";
+    private static final int RECORD_HEADER = 8;
+    private static final int END_OF_SEGMENT = -1;
+    private static final byte RECORD_MESSAGE = 0;
+    private static final byte RECORD_TOMBSTONE = 1;
+    private static final long CLEANUP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMs;
+    private final boolean syncOnAppend;
+    private final MessageCodec codec;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile Segment activeSegment;
+
+    private volatile long writtenOffset;
+    private volatile long flushedOffset;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+
+    private final Map<String, Long> ackedOffsets = new ConcurrentHashMap<>();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private volatile boolean offsetsDirty;
+    private final Map<String, List<Long>> recoveredOffsets = new ConcurrentHashMap<>();
+
+    private final Counter appendCounter;
+    private final Counter flushCounter;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public MessageJournal(Path directory, int segmentSize, long flushIntervalMs, boolean syncOnAppend,
+                          MessageCodec codec, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.syncOnAppend = syncOnAppend;
+        this.codec = codec;
+        this.appendCounter = Counter.builder("agent.journal.appends")
+                .description("写入消息日志的记录数")
+                .register(meterRegistry);
+        this.flushCounter = Counter.builder("agent.journal.flushes")
+                .description("消息日志刷盘次数")
+                .register(meterRegistry);
+        Gauge.builder("agent.journal.segments", segments, Map::size)
+                .description("消息日志分段文件数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 打开日志：加载已确认偏移，扫描现有分段建立待回放索引，并启动刷盘线程
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        loadAckedOffsets();
+        recover();
+        running = true;
+        flusher = new Thread(this::runFlusher, "agent-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("消息日志已打开: dir={}, segments={}, pendingAgents={}",
+                directory, segments.size(), recoveredOffsets.size());
+    }
+
+    /**
+     * 追加消息
+     *
+     * @return 记录偏移
+     */
+    public long append(String agentId, MessageEnvelope envelope) {
+        long offset = appendRecord(agentId, RECORD_MESSAGE, envelope.encoded(codec));
+        inFlight(agentId).add(offset);
+        return offset;
+    }
+
+    /**
+     * 作废一条已写入但不再投递的消息，恢复时不再回放，并视为已确认
+     */
+    public void discard(String agentId, long offset) {
+        appendRecord(agentId, RECORD_TOMBSTONE, ByteBuffer.allocate(Long.BYTES).putLong(0, offset));
+        acknowledge(agentId, offset);
+    }
+
+    /**
+     * 同步模式下等待指定偏移之前的记录刷盘，非同步模式直接返回
+     */
+    public void awaitDurable(long offset) {
+        if (!syncOnAppend || flushedOffset > offset) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (running && flushedOffset <= offset) {
+                flushed.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 确认单条消息已处理，确认偏移推进到该智能体最小未确认偏移之前
+     */
+    public void acknowledge(String agentId, long offset) {
+        InFlight pending = inFlight.get(agentId);
+        if (pending == null) {
+            return;
+        }
+        long lowWaterMark = pending.complete(offset);
+        if (lowWaterMark >= 0 && lowWaterMark > ackedOffsets.getOrDefault(agentId, -1L)) {
+            ackedOffsets.merge(agentId, lowWaterMark, Math::max);
+            offsetsDirty = true;
+        }
+    }
+
+    /**
+     * 取出智能体在上次运行中未确认的消息，只能取一次
+     */
+    public List<MessageEnvelope> drainRecovered(String agentId) {
+        List<Long> offsets = recoveredOffsets.remove(agentId);
+        if (offsets == null) {
+            return List.of();
+        }
+        List<MessageEnvelope> envelopes = new ArrayList<>(offsets.size());
+        InFlight pending = inFlight(agentId);
+        for (long offset : offsets) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                continue;
+            }
+            Segment segment = entry.getValue();
+            int position = (int) (offset - segment.baseOffset);
+            int length = segment.buffer.getInt(position);
+            int agentLength = segment.buffer.getShort(position + RECORD_HEADER + 1);
+            int contentOffset = position + RECORD_HEADER + 3 + agentLength;
+            int contentLength = length - 3 - agentLength;
+            envelopes.add(codec.decode(segment.buffer.slice(contentOffset, contentLength)).withJournalOffset(offset));
+            pending.add(offset);
+        }
+        return envelopes;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        persistAckedOffsets();
+        signalFlushed();
+    }
+
+    private InFlight inFlight(String agentId) {
+        return inFlight.computeIfAbsent(agentId, id -> new InFlight());
+    }
+
+    private long appendRecord(String agentId, byte recordType, ByteBuffer content) {
+        byte[] agentBytes = agentId.getBytes(StandardCharsets.UTF_8);
+        int length = 3 + agentBytes.length + content.remaining();
+        if (RECORD_HEADER + length > segmentSize) {
+            throw new IllegalArgumentException("消息超过日志分段大小: " + length);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length)
+                .put(recordType)
+                .putShort((short) agentBytes.length)
+                .put(agentBytes)
+                .put(content.duplicate())
+                .flip();
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+
+        long offset;
+        appendLock.lock();
+        try {
+            Segment segment = segmentFor(RECORD_HEADER + length);
+            int position = segment.writePosition;
+            segment.buffer.putInt(position + 4, (int) crc.getValue());
+            segment.buffer.put(position + RECORD_HEADER, body, 0, length);
+            segment.buffer.putInt(position, length);
+            segment.writePosition = position + RECORD_HEADER + length;
+            offset = segment.baseOffset + position;
+            if (recordType == RECORD_MESSAGE) {
+                segment.lastOffsetByAgent.put(agentId, offset);
+            }
+            writtenOffset = segment.baseOffset + segment.writePosition;
+        } finally {
+            appendLock.unlock();
+        }
+        appendCounter.increment();
+        return offset;
+    }
+
+    /**
+     * 当前分段放不下时写入分段结束标记并切换到新分段，调用方需持有appendLock
+     */
+    private Segment segmentFor(int recordSize) {
+        Segment segment = activeSegment;
+        if (segment.writePosition + recordSize <= segmentSize) {
+            return segment;
+        }
+        if (segment.writePosition + Integer.BYTES <= segmentSize) {
+            segment.buffer.putInt(segment.writePosition, END_OF_SEGMENT);
+        }
+        try {
+            activeSegment = openSegment(segment.baseOffset + segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建消息日志分段失败", e);
+        }
+        segments.put(activeSegment.baseOffset, activeSegment);
+        return activeSegment;
+    }
+
+    private void recover() throws IOException {
+        List<Long> baseOffsets;
+        try (Stream<Path> files = Files.list(directory)) {
+            baseOffsets = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        Map<String, List<Long>> pending = new HashMap<>();
+        Set<Long> discarded = new HashSet<>();
+        for (long baseOffset : baseOffsets) {
+            Segment segment = openSegment(baseOffset);
+            segments.put(baseOffset, segment);
+            scanSegment(segment, pending, discarded);
+        }
+
+        pending.forEach((agentId, offsets) -> {
+            List<Long> replay = offsets.stream().filter(offset -> !discarded.contains(offset)).toList();
+            if (!replay.isEmpty()) {
+                recoveredOffsets.put(agentId, replay);
+            }
+        });
+
+        if (segments.isEmpty()) {
+            Segment segment = openSegment(0);
+            segments.put(0L, segment);
+        }
+        activeSegment = segments.lastEntry().getValue();
+        // 清除末尾可能残留的半条记录，避免之后被误读
+        ByteBuffer tail = activeSegment.buffer;
+        for (int i = activeSegment.writePosition; i < segmentSize; i++) {
+            tail.put(i, (byte) 0);
+        }
+        writtenOffset = activeSegment.baseOffset + activeSegment.writePosition;
+        flushedOffset = writtenOffset;
+    }
+
+    private void scanSegment(Segment segment, Map<String, List<Long>> pending, Set<Long> discarded) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + RECORD_HEADER <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                position = segmentSize;
+                break;
+            }
+            if (length <= 0 || position + RECORD_HEADER + length > segmentSize) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(position + RECORD_HEADER, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("消息日志记录校验失败，视为日志末尾: segment={}, position={}", segment.path, position);
+                break;
+            }
+            byte recordType = buffer.get(position + RECORD_HEADER);
+            int agentLength = buffer.getShort(position + RECORD_HEADER + 1);
+            byte[] agentBytes = new byte[agentLength];
+            buffer.get(position + RECORD_HEADER + 3, agentBytes);
+            String agentId = new String(agentBytes, StandardCharsets.UTF_8);
+            long offset = segment.baseOffset + position;
+            if (recordType == RECORD_TOMBSTONE) {
+                discarded.add(buffer.getLong(position + RECORD_HEADER + 3 + agentLength));
+            } else {
+                segment.lastOffsetByAgent.put(agentId, offset);
+                if (offset > ackedOffsets.getOrDefault(agentId, -1L)) {
+                    pending.computeIfAbsent(agentId, id -> new ArrayList<>()).add(offset);
+                }
+            }
+            position += RECORD_HEADER + length;
+        }
+        segment.writePosition = position;
+    }
+
+    private Segment openSegment(long baseOffset) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(baseOffset, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        }
+    }
+
+    private void runFlusher() {
+        long lastCleanup = System.nanoTime();
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMs);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                flush();
+                if (System.nanoTime() - lastCleanup > CLEANUP_INTERVAL_NANOS) {
+                    persistAckedOffsets();
+                    deleteAcknowledgedSegments();
+                    lastCleanup = System.nanoTime();
+                }
+            } catch (RuntimeException e) {
+                log.error("消息日志刷盘失败", e);
+            }
+        }
+    }
+
+    /**
+     * 组提交：一次force覆盖上次刷盘以来所有发送方写入的记录
+     */
+    private void flush() {
+        long target = writtenOffset;
+        if (target <= flushedOffset) {
+            return;
+        }
+        Long fromKey = segments.floorKey(flushedOffset);
+        Map<Long, Segment> dirty = fromKey != null ? segments.tailMap(fromKey) : segments;
+        for (Segment segment : dirty.values()) {
+            segment.buffer.force();
+        }
+        flushedOffset = target;
+        flushCounter.increment();
+        signalFlushed();
+    }
+
+    private void signalFlushed() {
+        if (!syncOnAppend) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 删除最早的一段连续已确认分段，遇到仍有未确认消息的分段即停止
+     */
+    void deleteAcknowledgedSegments() {
+        Segment active = activeSegment;
+        for (Segment segment : segments.values()) {
+            if (segment == active) {
+                break;
+            }
+            boolean acknowledged = segment.lastOffsetByAgent.entrySet().stream()
+                    .allMatch(entry -> ackedOffsets.getOrDefault(entry.getKey(), -1L) >= entry.getValue());
+            if (!acknowledged) {
+                break;
+            }
+            segments.remove(segment.baseOffset);
+            try {
+                Files.deleteIfExists(segment.path);
+                log.info("删除已确认的消息日志分段: {}", segment.path);
+            } catch (IOException e) {
+                log.warn("删除消息日志分段失败: {}", segment.path, e);
+            }
+        }
+    }
+
+    private void loadAckedOffsets() throws IOException {
+        Path file = directory.resolve(OFFSETS_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        properties.forEach((agentId, offset) -> ackedOffsets.put((String) agentId, Long.parseLong((String) offset)));
+    }
+
+    private void persistAckedOffsets() {
+        if (!offsetsDirty) {
+            return;
+        }
+        offsetsDirty = false;
+        Properties properties = new Properties();
+        ackedOffsets.forEach((agentId, offset) -> properties.setProperty(agentId, Long.toString(offset)));
+        Path file = directory.resolve(OFFSETS_FILE);
+        Path temp = directory.resolve(OFFSETS_FILE + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            offsetsDirty = true;
+            log.warn("保存消息确认偏移失败", e);
+        }
+    }
+
+    /**
+     * 单个智能体已投递未确认的偏移。低水位不超过已确认的最大偏移，
+     * 因此偏移写入日志后、登记到这里之前发生的确认也不会越过它
+     */
+    private static final class InFlight {
+
+        private final TreeSet<Long> offsets = new TreeSet<>();
+        private long highestCompleted = -1L;
+
+        private synchronized void add(long offset) {
+            offsets.add(offset);
+        }
+
+        /**
+         * @return 新的低水位，偏移未登记时返回-1
+         */
+        private synchronized long complete(long offset) {
+            if (!offsets.remove(offset)) {
+                return -1L;
+            }
+            highestCompleted = Math.max(highestCompleted, offset);
+            return offsets.isEmpty() ? highestCompleted : Math.min(offsets.first() - 1, highestCompleted);
+        }
+    }
+
+    private static final class Segment {
+
+        private final long baseOffset;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final Map<String, Long> lastOffsetByAgent = new ConcurrentHashMap<>();
+        private int writePosition;
+
+        private Segment(long baseOffset, Path path, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 邮箱优先级通道
+ * 每个通道独立排队，溢出策略也按通道生效，大量批量消息不会挤掉心跳等控制消息
+ *
+ * @author SmartFA Team
+ */
+public enum MessageLane {
+
+    /**
+     * 控制消息：心跳
+     */
+    CONTROL(8, 4),
+
+    /**
+     * 任务消息：任务分配、协作请求与响应
+     */
+    TASK(4, 2),
+
+    /**
+     * 批量消息：任务状态上报等
+     */
+    BULK(1, 4);
+
+    /**
+     * 加权公平调度时每轮可取出的消息数
+     */
+    private final int weight;
+
+    /**
+     * 通道容量占邮箱总容量的比例分母，各通道合计等于邮箱容量
+     */
+    private final int capacityDivisor;
+
+    MessageLane(int weight, int capacityDivisor) {
+        this.weight = weight;
+        this.capacityDivisor = capacityDivisor;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * 按邮箱总容量计算本通道容量
+     */
+    public int capacityOf(int mailboxCapacity) {
+        return Math.max(2, mailboxCapacity / capacityDivisor);
+    }
+
+    /**
+     * 按内容类型或消息类型选择通道，未知类型走TASK通道
+     */
+    public static MessageLane of(MessageEnvelope envelope) {
+        MessagePayload payload = envelope.payload();
+        if (payload != null) {
+            return switch (payload.type()) {
+                case HEARTBEAT -> CONTROL;
+                case TASK_STATUS -> BULK;
+                default -> TASK;
+            };
+        }
+        String messageType = envelope.messageType();
+        if ("HEARTBEAT".equals(messageType)) {
+            return CONTROL;
+        }
+        if ("TASK_STATUS".equals(messageType)) {
+            return BULK;
+        }
+        return TASK;
+    }
+}
@@ -0,0 +1,69 @@
+package com.smartfa.cluster.messaging;
+
+import java.util.Map;
+
+/**
+ * 类型化消息内容
+ * 取代把Map序列化为JSON字符串放入content的做法，接收方直接按类型读取字段
+ *
+ * @author SmartFA Team
+ */
+public sealed interface MessagePayload {
+
+    /**
+     * 内容类型
+     */
+    PayloadType type();
+
+    /**
+     * 任务分配
+     */
+    record TaskAssignment(String taskId, String taskType, Object taskData) implements MessagePayload {
+        @Override
+        public PayloadType type() {
+            return PayloadType.TASK_ASSIGNMENT;
+        }
+    }
+
+    /**
+     * 任务状态
+     */
+    record TaskStatus(String taskId, String status, Object result) implements MessagePayload {
+        @Override
+        public PayloadType type() {
+            return PayloadType.TASK_STATUS;
+        }
+    }
+
+    /**
+     * 协作请求
+     */
+    record CollaborationRequest(String taskId, String requiredCapability, Object requestData)
+            implements MessagePayload {
+        @Override
+        public PayloadType type() {
+            return PayloadType.COLLABORATION_REQUEST;
+        }
+    }
+
+    /**
+     * 协作响应
+     */
+    record CollaborationResponse(String taskId, boolean canCollaborate, Object responseData)
+            implements MessagePayload {
+        @Override
+        public PayloadType type() {
+            return PayloadType.COLLABORATION_RESPONSE;
+        }
+    }
+
+    /**
+     * 心跳
+     */
+    record Heartbeat(String agentId, Map<String, Object> status, long timestamp) implements MessagePayload {
+        @Override
+        public PayloadType type() {
+            return PayloadType.HEARTBEAT;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 消息内容类型，编码时作为类型标记写入消息头
+ *
+ * @author SmartFA Team
+ */
+public enum PayloadType {
+
+    /**
+     * 无类型化内容，只有字符串content
+     */
+    NONE(0),
+
+    TASK_ASSIGNMENT(1),
+
+    TASK_STATUS(2),
+
+    COLLABORATION_REQUEST(3),
+
+    COLLABORATION_RESPONSE(4),
+
+    HEARTBEAT(5);
+
+    private final byte tag;
+
+    PayloadType(int tag) {
+        this.tag = (byte) tag;
+    }
+
+    public byte tag() {
+        return tag;
+    }
+
+    /**
+     * 按类型标记查找
+     */
+    public static PayloadType fromTag(byte tag) {
+        for (PayloadType type : values()) {
+            if (type.tag == tag) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的消息内容类型: " + tag);
+    }
+}
@@ -0,0 +1,112 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.dto.MessageDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 请求-响应关联器
+ * 按关联ID登记待响应的请求，响应到达时直接完成对应的CompletableFuture；
+ * 超时由时间轮清理，调用方无需轮询邮箱
+ *
+ * @author SmartFA Team
+ */
+public class RequestCorrelator implements AutoCloseable {
+
+    private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+    private final TimingWheel timingWheel;
+    private final Counter timeoutCounter;
+
+    public RequestCorrelator(long tickMs, int wheelSize, MeterRegistry meterRegistry) {
+        this.timingWheel = new TimingWheel("agent-request-timeout", tickMs, TimeUnit.MILLISECONDS, wheelSize);
+        Gauge.builder("agent.request.pending", pendingRequests, Map::size)
+                .description("等待响应的智能体请求数")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("agent.request.timeouts")
+                .description("超时的智能体请求数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 生成新的关联ID
+     */
+    public String nextCorrelationId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * 登记待响应的请求
+     *
+     * @return 收到响应时完成，超时时以TimeoutException异常完成
+     */
+    public CompletableFuture<MessageDto> register(String correlationId, long timeoutMs) {
+        CompletableFuture<MessageDto> future = new CompletableFuture<>();
+        PendingRequest request = new PendingRequest(future);
+        if (pendingRequests.putIfAbsent(correlationId, request) != null) {
+            throw new IllegalStateException("关联ID重复: " + correlationId);
+        }
+        request.timeout = timingWheel.schedule(() -> {
+            if (pendingRequests.remove(correlationId, request)) {
+                timeoutCounter.increment();
+                future.completeExceptionally(
+                        new TimeoutException("等待响应超时: " + correlationId + ", " + timeoutMs + "ms"));
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        // 调用方取消或投递失败时同样移除登记
+        future.whenComplete((response, error) -> {
+            pendingRequests.remove(correlationId, request);
+            request.timeout.cancel();
+        });
+        return future;
+    }
+
+    /**
+     * 用响应完成对应的请求
+     *
+     * @return 存在等待中的请求时返回true；请求已超时或关联ID未知时返回false
+     */
+    public boolean complete(MessageDto response) {
+        String correlationId = response.getCorrelationId();
+        if (correlationId == null) {
+            return false;
+        }
+        PendingRequest request = pendingRequests.remove(correlationId);
+        if (request == null) {
+            return false;
+        }
+        return request.future.complete(response);
+    }
+
+    /**
+     * 等待响应的请求数
+     */
+    public int pendingCount() {
+        return pendingRequests.size();
+    }
+
+    @Override
+    public void close() {
+        timingWheel.close();
+        pendingRequests.values().forEach(request ->
+                request.future.completeExceptionally(new IllegalStateException("通信服务已关闭")));
+        pendingRequests.clear();
+    }
+
+    private static final class PendingRequest {
+
+        private final CompletableFuture<MessageDto> future;
+        private volatile TimingWheel.Timeout timeout;
+
+        private PendingRequest(CompletableFuture<MessageDto> future) {
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartfa.cluster.messaging;
+
+/**
+ * 消息发送结果，作为背压信号返回给发送方
+ *
+ * @author SmartFA Team
+ */
+public enum SendResult {
+
+    /**
+     * 已投递
+     */
+    DELIVERED(true),
+
+    /**
+     * 已投递，但邮箱已满，丢弃了最旧的一条消息
+     */
+    DELIVERED_DROPPED_OLDEST(true),
+
+    /**
+     * 邮箱已满，消息被拒绝
+     */
+    REJECTED_FULL(false),
+
+    /**
+     * 等待邮箱空间超时
+     */
+    TIMEOUT(false),
+
+    /**
+     * 目标智能体未连接
+     */
+    NOT_CONNECTED(false),
+
+    /**
+     * 没有订阅该主题的可用智能体
+     */
+    NO_ROUTE(false);
+
+    private final boolean accepted;
+
+    SendResult(boolean accepted) {
+        this.accepted = accepted;
+    }
+
+    /**
+     * 消息是否进入了目标邮箱
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+}
@@ -0,0 +1,150 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.entity.Agent;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 主题路由器
+ * 按能力和智能体类型维护预先计算好的订阅表（邮箱数组快照），
+ * 路由时按主题的负载均衡策略选出一个智能体，耗时与订阅者数量无关
+ *
+ * @author SmartFA Team
+ */
+public class TopicRouter {
+
+    private static final AgentMailbox[] NO_MAILBOXES = new AgentMailbox[0];
+
+    private final LoadBalanceStrategy defaultStrategy;
+
+    /**
+     * 按主题单独指定的负载均衡策略，主题为能力名或智能体类型名
+     */
+    private final Map<String, LoadBalanceStrategy> topicStrategies = new ConcurrentHashMap<>();
+
+    private volatile Map<String, TopicGroup> capabilityGroups = Map.of();
+    private volatile Map<Agent.AgentType, TopicGroup> typeGroups = new EnumMap<>(Agent.AgentType.class);
+
+    public TopicRouter(LoadBalanceStrategy defaultStrategy) {
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    /**
+     * 指定主题的负载均衡策略，下次重建订阅表时生效
+     */
+    public void setStrategy(String topic, LoadBalanceStrategy strategy) {
+        topicStrategies.put(topic, strategy);
+    }
+
+    /**
+     * 用最新的在线订阅关系重建订阅表
+     */
+    public void rebuild(Map<String, List<AgentMailbox>> byCapability,
+                        Map<Agent.AgentType, List<AgentMailbox>> byType) {
+        Map<String, TopicGroup> capabilities = new HashMap<>();
+        byCapability.forEach((capability, mailboxes) ->
+                capabilities.put(capability, newGroup(capability, mailboxes, capabilityGroups.get(capability))));
+        Map<Agent.AgentType, TopicGroup> types = new EnumMap<>(Agent.AgentType.class);
+        byType.forEach((agentType, mailboxes) ->
+                types.put(agentType, newGroup(agentType.name(), mailboxes, typeGroups.get(agentType))));
+        this.capabilityGroups = capabilities;
+        this.typeGroups = types;
+    }
+
+    /**
+     * 按能力选择一个智能体
+     *
+     * @param excludeAgentId 不参与选择的智能体（通常为发送方）
+     * @return 没有可用订阅者时返回null
+     */
+    public AgentMailbox routeByCapability(String capability, String excludeAgentId) {
+        TopicGroup group = capabilityGroups.get(capability);
+        return group != null ? group.select(excludeAgentId) : null;
+    }
+
+    /**
+     * 按智能体类型选择一个智能体
+     *
+     * @return 没有可用订阅者时返回null
+     */
+    public AgentMailbox routeByType(Agent.AgentType agentType, String excludeAgentId) {
+        TopicGroup group = typeGroups.get(agentType);
+        return group != null ? group.select(excludeAgentId) : null;
+    }
+
+    /**
+     * 某一类型的全部在线邮箱
+     */
+    public AgentMailbox[] typeMembers(Agent.AgentType agentType) {
+        TopicGroup group = typeGroups.get(agentType);
+        return group != null ? group.members : NO_MAILBOXES;
+    }
+
+    /**
+     * 已有订阅者的能力列表
+     */
+    public Collection<String> capabilities() {
+        return capabilityGroups.keySet();
+    }
+
+    private TopicGroup newGroup(String topic, List<AgentMailbox> mailboxes, TopicGroup previous) {
+        // 沿用旧的轮询游标，避免订阅表重建后总是从第一个智能体开始
+        AtomicInteger cursor = previous != null ? previous.cursor : new AtomicInteger();
+        return new TopicGroup(mailboxes.toArray(NO_MAILBOXES),
+                topicStrategies.getOrDefault(topic, defaultStrategy), cursor);
+    }
+
+    /**
+     * 单个主题的订阅者快照
+     */
+    private static final class TopicGroup {
+
+        private final AgentMailbox[] members;
+        private final LoadBalanceStrategy strategy;
+        private final AtomicInteger cursor;
+
+        private TopicGroup(AgentMailbox[] members, LoadBalanceStrategy strategy, AtomicInteger cursor) {
+            this.members = members;
+            this.strategy = strategy;
+            this.cursor = cursor;
+        }
+
+        private AgentMailbox select(String excludeAgentId) {
+            int count = members.length;
+            if (count == 0) {
+                return null;
+            }
+            if (count == 1) {
+                return isExcluded(members[0], excludeAgentId) ? null : members[0];
+            }
+            if (strategy == LoadBalanceStrategy.ROUND_ROBIN) {
+                int index = Math.floorMod(cursor.getAndIncrement(), count);
+                AgentMailbox candidate = members[index];
+                return isExcluded(candidate, excludeAgentId) ? members[(index + 1) % count] : candidate;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(count);
+            int second = (first + 1 + random.nextInt(count - 1)) % count;
+            AgentMailbox a = members[first];
+            AgentMailbox b = members[second];
+            if (isExcluded(a, excludeAgentId)) {
+                return b;
+            }
+            if (isExcluded(b, excludeAgentId)) {
+                return a;
+            }
+            return a.size() <= b.size() ? a : b;
+        }
+
+        private static boolean isExcluded(AgentMailbox mailbox, String excludeAgentId) {
+            return mailbox.getAgentId().equals(excludeAgentId);
+        }
+    }
+}
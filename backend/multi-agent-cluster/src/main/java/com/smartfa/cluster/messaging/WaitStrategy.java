@@ -0,0 +1,69 @@
+package com.smartfa.cluster.messaging;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 邮箱等待策略
+ * 决定消费者在邮箱为空、或BLOCK策略下生产者在邮箱已满时如何等待
+ *
+ * @author SmartFA Team
+ */
+public enum WaitStrategy {
+
+    /**
+     * 忙等，延迟最低，但会占满一个CPU核
+     */
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * 让出CPU后重试
+     */
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * 挂起线程，由生产者投递时唤醒消费者；空闲的消费者不会周期性醒来
+     */
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+
+        @Override
+        void backOff() {
+            LockSupport.parkNanos(BACK_OFF_NANOS);
+        }
+    };
+
+    /**
+     * 消费者单次挂起的最长时间，仅作为漏唤醒时的兜底
+     */
+    static final long PARK_NANOS = 100_000_000L;
+
+    /**
+     * BLOCK策略下生产者的重试间隔，消费者取出消息时不唤醒生产者
+     */
+    static final long BACK_OFF_NANOS = 1_000_000L;
+
+    /**
+     * 消费者等待消息
+     */
+    abstract void idle();
+
+    /**
+     * 生产者等待空位
+     */
+    void backOff() {
+        idle();
+    }
+}
@@ -1,19 +1,37 @@
-
 package com.smartfa.cluster.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Autowired;
-
-import com.smartfa.cluster.entity.Agent;
 import com.smartfa.cluster.dto.MessageDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartfa.cluster.entity.Agent;
+import com.smartfa.cluster.messaging.AgentConsumer;
+import com.smartfa.cluster.messaging.AgentMailbox;
+import com.smartfa.cluster.messaging.DeadLetterReason;
+import com.smartfa.cluster.messaging.LoadBalanceStrategy;
+import com.smartfa.cluster.messaging.MailboxOverflowPolicy;
+import com.smartfa.cluster.messaging.MessageCodec;
+import com.smartfa.cluster.messaging.MessageDeliveryException;
+import com.smartfa.cluster.messaging.MessageEnvelope;
+import com.smartfa.cluster.messaging.MessageHandler;
+import com.smartfa.cluster.messaging.MessageLane;
+import com.smartfa.cluster.messaging.MessagePayload;
+import com.smartfa.cluster.messaging.RequestCorrelator;
+import com.smartfa.cluster.messaging.SendResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 智能体通信服务
@@ -21,69 +39,309 @@ import java.util.Map;
 @Service
 public class AgentCommunicationService {
 
+    private static final Logger log = LoggerFactory.getLogger(AgentCommunicationService.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AgentMailboxRegistry mailboxRegistry;
+
+    @Autowired
+    private AgentMessageJournal messageJournal;
+
     @Autowired
-    private ObjectMapper objectMapper;
+    private DeadLetterService deadLetterService;
+
+    @Autowired
+    private RequestCorrelator requestCorrelator;
+
+    @Autowired
+    private MessageCodec messageCodec;
+
+    @Value("${agent.request.timeout-ms:5000}")
+    private long requestTimeoutMs;
+
+    @Value("${agent.consumer.batch-size:64}")
+    private int consumerBatchSize;
+
+    @Value("${agent.consumer.shutdown-timeout-ms:1000}")
+    private long consumerShutdownTimeoutMs;
+
+    // 智能体消费者
+    private final Map<String, AgentConsumer> agentConsumers = new ConcurrentHashMap<>();
 
-    // 智能体消息队列
-    private final Map<String, BlockingQueue<MessageDto>> agentMessageQueues = new ConcurrentHashMap<>();
-    
-    // 智能体连接状态
-    private final Map<String, Boolean> agentConnections = new ConcurrentHashMap<>();
+    @PostConstruct
+    public void init() {
+        Gauge.builder("agent.consumer.active", agentConsumers, Map::size)
+                .description("运行中的智能体消费者数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        agentConsumers.keySet().forEach(this::unsubscribe);
+    }
 
     /**
-     * 注册智能体
+     * 注册智能体，使用默认邮箱容量和溢出策略
      */
     public void registerAgent(String agentId) {
-        agentMessageQueues.put(agentId, new LinkedBlockingQueue<>());
-        agentConnections.put(agentId, true);
+        registerAgent(agentId, null, null, null);
+    }
+
+    /**
+     * 注册智能体并加入类型分组
+     */
+    public void registerAgent(String agentId, Agent.AgentType agentType) {
+        registerAgent(agentId, agentType, null, null);
+    }
+
+    /**
+     * 注册智能体并指定邮箱容量和溢出策略
+     */
+    public void registerAgent(String agentId, int capacity, MailboxOverflowPolicy overflowPolicy) {
+        registerAgent(agentId, null, capacity, overflowPolicy);
+    }
+
+    /**
+     * 注册智能体，加入类型分组并订阅能力主题
+     */
+    public void registerAgent(String agentId, Agent.AgentType agentType, Collection<String> capabilities) {
+        registerAgent(agentId, agentType, null, null);
+        capabilities.forEach(capability -> subscribeCapability(agentId, capability));
+    }
+
+    /**
+     * 注册智能体，指定类型、邮箱容量和溢出策略
+     *
+     * @param agentType 智能体类型，为null时不加入任何类型分组
+     * @param capacity 邮箱容量，为null时使用默认容量
+     * @param overflowPolicy 溢出策略，为null时使用默认策略
+     */
+    public void registerAgent(String agentId, Agent.AgentType agentType, Integer capacity,
+                              MailboxOverflowPolicy overflowPolicy) {
+        unsubscribe(agentId);
+        AgentMailbox mailbox = mailboxRegistry.createMailbox(agentId, capacity, overflowPolicy,
+                dropped -> messageJournal.discard(agentId, dropped));
+        replayJournal(mailbox);
+        AgentMailbox previous = mailboxRegistry.register(agentId, agentType, mailbox);
+        if (previous != null) {
+            deadLetterService.moveToDeadLetters(previous, DeadLetterReason.UNREGISTERED);
+            previous.close();
+        }
+        deadLetterService.redeliver(agentId);
     }
 
     /**
      * 注销智能体
      */
     public void unregisterAgent(String agentId) {
-        agentMessageQueues.remove(agentId);
-        agentConnections.remove(agentId);
+        unsubscribe(agentId);
+        AgentMailbox mailbox = mailboxRegistry.unregister(agentId);
+        if (mailbox != null) {
+            deadLetterService.moveToDeadLetters(mailbox, DeadLetterReason.UNREGISTERED);
+            mailbox.close();
+        }
+    }
+
+    /**
+     * 为智能体启动消费者，在虚拟线程上按批取出邮箱消息并交给处理器
+     *
+     * @return 智能体未注册或已有消费者时返回false
+     */
+    public boolean subscribe(String agentId, MessageHandler handler) {
+        synchronized (this) {
+            AgentMailbox mailbox = mailboxRegistry.get(agentId);
+            if (mailbox == null || agentConsumers.containsKey(agentId)) {
+                return false;
+            }
+            agentConsumers.put(agentId, AgentConsumer.start(mailbox, handler, consumerBatchSize,
+                    messageJournal.acknowledger(agentId)));
+            return true;
+        }
+    }
+
+    /**
+     * 停止智能体的消费者，等待正在处理的批次完成
+     */
+    public void unsubscribe(String agentId) {
+        AgentConsumer consumer = agentConsumers.remove(agentId);
+        if (consumer != null && !consumer.stop(consumerShutdownTimeoutMs)) {
+            log.warn("智能体消费者未在{}ms内停止: {}", consumerShutdownTimeoutMs, agentId);
+        }
+    }
+
+    /**
+     * 订阅能力主题
+     */
+    public void subscribeCapability(String agentId, String capability) {
+        mailboxRegistry.subscribeCapability(agentId, capability);
+    }
+
+    /**
+     * 取消订阅能力主题
+     */
+    public void unsubscribeCapability(String agentId, String capability) {
+        mailboxRegistry.unsubscribeCapability(agentId, capability);
+    }
+
+    /**
+     * 指定主题（能力名或智能体类型名）的负载均衡策略
+     */
+    public void setTopicStrategy(String topic, LoadBalanceStrategy strategy) {
+        mailboxRegistry.setTopicStrategy(topic, strategy);
     }
 
     /**
      * 发送消息到指定智能体
+     *
+     * @return 是否投递成功
      */
     public boolean sendMessage(String fromAgentId, String toAgentId, MessageDto message) {
-        if (!isAgentConnected(toAgentId)) {
-            return false;
+        return send(fromAgentId, toAgentId, message).isAccepted();
+    }
+
+    /**
+     * 发送消息到指定智能体，返回投递结果供发送方做背压处理。
+     * 未被接收的消息进入死信队列并在智能体恢复后自动重投，调用方无需自行重试；请求-响应消息除外
+     */
+    public SendResult send(String fromAgentId, String toAgentId, MessageDto message) {
+        MessageEnvelope envelope = MessageEnvelope.of(fromAgentId, message);
+        AgentMailbox mailbox = mailboxRegistry.getConnected(toAgentId);
+        if (mailbox == null) {
+            deadLetterService.deadLetter(toAgentId, envelope, DeadLetterReason.NOT_CONNECTED);
+            return SendResult.NOT_CONNECTED;
         }
-        
-        message.setFromAgentId(fromAgentId);
-        message.setToAgentId(toAgentId);
-        message.setTimestamp(System.currentTimeMillis());
-        
-        BlockingQueue<MessageDto> queue = agentMessageQueues.get(toAgentId);
-        if (queue != null) {
-            return queue.offer(message);
+        return deliverOrDeadLetter(mailbox, envelope);
+    }
+
+    /**
+     * 发送消息到一个具备指定能力的智能体，由负载均衡策略选择接收方
+     */
+    public SendResult sendToCapability(String fromAgentId, String capability, MessageDto message) {
+        AgentMailbox mailbox = mailboxRegistry.routeByCapability(capability, fromAgentId);
+        if (mailbox == null) {
+            return SendResult.NO_ROUTE;
         }
-        
-        return false;
+        return deliverOrDeadLetter(mailbox, MessageEnvelope.of(fromAgentId, message));
     }
 
     /**
-     * 广播消息到所有智能体
+     * 发送消息到一个指定类型的智能体，由负载均衡策略选择接收方
      */
-    public void broadcastMessage(String fromAgentId, MessageDto message) {
-        agentConnections.forEach((agentId, connected) -> {
-            if (connected && !agentId.equals(fromAgentId)) {
-                sendMessage(fromAgentId, agentId, message);
-            }
-        });
+    public SendResult sendToType(String fromAgentId, Agent.AgentType agentType, MessageDto message) {
+        AgentMailbox mailbox = mailboxRegistry.routeByType(agentType, fromAgentId);
+        if (mailbox == null) {
+            return SendResult.NO_ROUTE;
+        }
+        return deliverOrDeadLetter(mailbox, MessageEnvelope.of(fromAgentId, message));
+    }
+
+    /**
+     * 创建协作请求并路由到一个具备所需能力、负载较低的智能体
+     */
+    public SendResult routeCollaborationRequest(String fromAgentId, String taskId, String requiredCapability,
+                                                Object requestData) {
+        MessageDto message = createCollaborationRequest(taskId, requiredCapability, requestData);
+        return sendToCapability(fromAgentId, requiredCapability, message);
+    }
+
+    /**
+     * 发送请求并等待响应，使用默认超时
+     */
+    public CompletableFuture<MessageDto> request(String fromAgentId, String toAgentId, MessageDto message) {
+        return request(fromAgentId, toAgentId, message, requestTimeoutMs);
+    }
+
+    /**
+     * 发送请求并等待响应
+     *
+     * @return 收到响应时完成；投递失败时以MessageDeliveryException、超时时以TimeoutException异常完成
+     */
+    public CompletableFuture<MessageDto> request(String fromAgentId, String toAgentId, MessageDto message,
+                                                 long timeoutMs) {
+        CompletableFuture<MessageDto> future = registerRequest(message, timeoutMs);
+        SendResult result = send(fromAgentId, toAgentId, message);
+        if (!result.isAccepted()) {
+            future.completeExceptionally(new MessageDeliveryException(result));
+        }
+        return future;
+    }
+
+    /**
+     * 向一个具备所需能力的智能体发起协作请求并等待协作响应
+     */
+    public CompletableFuture<MessageDto> requestCollaboration(String fromAgentId, String taskId,
+                                                             String requiredCapability, Object requestData,
+                                                             long timeoutMs) {
+        MessageDto message = createCollaborationRequest(taskId, requiredCapability, requestData);
+        CompletableFuture<MessageDto> future = registerRequest(message, timeoutMs);
+        SendResult result = sendToCapability(fromAgentId, requiredCapability, message);
+        if (!result.isAccepted()) {
+            future.completeExceptionally(new MessageDeliveryException(result));
+        }
+        return future;
+    }
+
+    /**
+     * 回复请求：请求方仍在等待时直接完成其Future，否则（如已超时）作为普通消息投递到请求方邮箱
+     */
+    public SendResult reply(String fromAgentId, MessageDto request, MessageDto response) {
+        response.setCorrelationId(request.getCorrelationId());
+        if (completeRequest(MessageEnvelope.of(fromAgentId, response).toMessageDto(request.getFromAgentId()))) {
+            return SendResult.DELIVERED;
+        }
+        return send(fromAgentId, request.getFromAgentId(), response);
+    }
+
+    /**
+     * 确认消息已处理，未启用消息日志或消息未写入日志时忽略；通过subscribe消费的消息会自动确认
+     */
+    public void acknowledge(String agentId, MessageDto message) {
+        if (message.getJournalOffset() != null) {
+            messageJournal.acknowledge(agentId, message.getJournalOffset());
+        }
+    }
+
+    /**
+     * 按关联ID完成等待中的请求，供远程传输收到响应时调用
+     *
+     * @return 存在等待中的请求时返回true
+     */
+    public boolean completeRequest(MessageDto response) {
+        return requestCorrelator.complete(response);
+    }
+
+    /**
+     * 广播消息到所有在线智能体（不含发送方）
+     *
+     * @return 成功投递的智能体数
+     */
+    public int broadcastMessage(String fromAgentId, MessageDto message) {
+        return publish(fromAgentId, MessageEnvelope.of(fromAgentId, message), mailboxRegistry.onlineMailboxes());
+    }
+
+    /**
+     * 广播消息到指定类型的所有在线智能体（不含发送方）
+     *
+     * @return 成功投递的智能体数
+     */
+    public int broadcastToType(String fromAgentId, Agent.AgentType agentType, MessageDto message) {
+        AgentMailbox[] group = mailboxRegistry.typeMembers(agentType);
+        if (group.length == 0) {
+            return 0;
+        }
+        return publish(fromAgentId, MessageEnvelope.of(fromAgentId, message), group);
     }
 
     /**
      * 获取智能体的消息
      */
     public MessageDto receiveMessage(String agentId) throws InterruptedException {
-        BlockingQueue<MessageDto> queue = agentMessageQueues.get(agentId);
-        if (queue != null) {
-            return queue.take();
+        AgentMailbox mailbox = mailboxRegistry.get(agentId);
+        if (mailbox != null) {
+            return mailbox.take().toMessageDto(agentId);
         }
         return null;
     }
@@ -92,143 +350,131 @@ public class AgentCommunicationService {
      * 获取智能体的消息（非阻塞）
      */
     public MessageDto receiveMessageNonBlocking(String agentId) {
-        BlockingQueue<MessageDto> queue = agentMessageQueues.get(agentId);
-        if (queue != null) {
-            return queue.poll();
+        AgentMailbox mailbox = mailboxRegistry.get(agentId);
+        if (mailbox != null) {
+            MessageEnvelope envelope = mailbox.poll();
+            return envelope != null ? envelope.toMessageDto(agentId) : null;
         }
         return null;
     }
 
+    /**
+     * 批量获取智能体的消息（非阻塞）
+     *
+     * @param batch 接收消息的集合
+     * @param maxMessages 最多取出的消息数
+     * @return 实际取出的消息数
+     */
+    public int drainMessages(String agentId, List<MessageDto> batch, int maxMessages) {
+        AgentMailbox mailbox = mailboxRegistry.get(agentId);
+        return mailbox != null ? drain(agentId, mailbox, batch, maxMessages) : 0;
+    }
+
+    /**
+     * 批量获取智能体的消息：阻塞到至少有一条消息，再取出已到达的其余消息
+     */
+    public List<MessageDto> receiveBatch(String agentId, int maxMessages) throws InterruptedException {
+        AgentMailbox mailbox = mailboxRegistry.get(agentId);
+        if (mailbox == null || maxMessages <= 0) {
+            return List.of();
+        }
+        List<MessageDto> batch = new ArrayList<>(Math.min(maxMessages, mailbox.capacity()));
+        batch.add(mailbox.take().toMessageDto(agentId));
+        drain(agentId, mailbox, batch, maxMessages - 1);
+        return batch;
+    }
+
     /**
      * 检查智能体是否在线
      */
     public boolean isAgentConnected(String agentId) {
-        return agentConnections.getOrDefault(agentId, false);
+        return mailboxRegistry.isConnected(agentId);
     }
 
     /**
      * 更新智能体连接状态
      */
     public void updateAgentConnection(String agentId, boolean connected) {
-        agentConnections.put(agentId, connected);
+        mailboxRegistry.setConnected(agentId, connected);
+        if (connected) {
+            deadLetterService.redeliver(agentId);
+        }
     }
 
     /**
      * 获取在线智能体列表
      */
-    public java.util.List<String> getOnlineAgents() {
-        return agentConnections.entrySet().stream()
-                .filter(Map.Entry::getValue)
-                .map(Map.Entry::getKey)
-                .collect(java.util.stream.Collectors.toList());
+    public List<String> getOnlineAgents() {
+        return mailboxRegistry.getOnlineAgents();
     }
 
     /**
      * 创建任务分配消息
      */
     public MessageDto createTaskAssignmentMessage(String taskId, String taskType, Object taskData) {
-        try {
-            MessageDto message = new MessageDto();
-            message.setType("TASK_ASSIGNMENT");
-            Map<String, Object> contentMap = Map.of(
-                "taskId", taskId,
-                "taskType", taskType,
-                "taskData", taskData
-            );
-            message.setContent(objectMapper.writeValueAsString(contentMap));
-            return message;
-        } catch (Exception e) {
-            throw new RuntimeException("创建任务分配消息失败", e);
-        }
+        return createMessage("TASK_ASSIGNMENT", new MessagePayload.TaskAssignment(taskId, taskType, taskData));
     }
 
     /**
      * 创建任务状态消息
      */
     public MessageDto createTaskStatusMessage(String taskId, String status, Object result) {
-        try {
-            MessageDto message = new MessageDto();
-            message.setType("TASK_STATUS");
-            message.setContent(objectMapper.writeValueAsString(Map.of(
-                "taskId", taskId,
-                "status", status,
-                "result", result
-            )));
-            return message;
-        } catch (Exception e) {
-            throw new RuntimeException("创建任务状态消息失败", e);
-        }
+        return createMessage("TASK_STATUS", new MessagePayload.TaskStatus(taskId, status, result));
     }
 
     /**
      * 创建协作请求消息
      */
     public MessageDto createCollaborationRequest(String taskId, String requiredCapability, Object requestData) {
-        try {
-            MessageDto message = new MessageDto();
-            message.setType("COLLABORATION_REQUEST");
-            message.setContent(objectMapper.writeValueAsString(Map.of(
-                "taskId", taskId,
-                "requiredCapability", requiredCapability,
-                "requestData", requestData
-            )));
-            return message;
-        } catch (Exception e) {
-            throw new RuntimeException("创建协作请求消息失败", e);
-        }
+        return createMessage("COLLABORATION_REQUEST",
+                new MessagePayload.CollaborationRequest(taskId, requiredCapability, requestData));
     }
 
     /**
      * 创建协作响应消息
      */
     public MessageDto createCollaborationResponse(String taskId, boolean canCollaborate, Object responseData) {
-        try {
-            MessageDto message = new MessageDto();
-            message.setType("COLLABORATION_RESPONSE");
-            message.setContent(objectMapper.writeValueAsString(Map.of(
-                "taskId", taskId,
-                "canCollaborate", canCollaborate,
-                "responseData", responseData
-            )));
-            return message;
-        } catch (Exception e) {
-            throw new RuntimeException("创建协作响应消息失败", e);
-        }
+        return createMessage("COLLABORATION_RESPONSE",
+                new MessagePayload.CollaborationResponse(taskId, canCollaborate, responseData));
     }
 
     /**
      * 创建心跳消息
      */
     public MessageDto createHeartbeatMessage(String agentId, Map<String, Object> status) {
-        try {
-            MessageDto message = new MessageDto();
-            message.setType("HEARTBEAT");
-            message.setContent(objectMapper.writeValueAsString(Map.of(
-                "agentId", agentId,
-                "status", status,
-                "timestamp", System.currentTimeMillis()
-            )));
-            return message;
-        } catch (Exception e) {
-            throw new RuntimeException("创建心跳消息失败", e);
-        }
+        return createMessage("HEARTBEAT",
+                new MessagePayload.Heartbeat(agentId, status, System.currentTimeMillis()));
+    }
+
+    /**
+     * 把消息编码为二进制，用于跨进程传输；进程内投递不需要编码
+     */
+    public ByteBuffer encodeMessage(String fromAgentId, MessageDto message) {
+        return MessageEnvelope.of(fromAgentId, message).encoded(messageCodec);
+    }
+
+    /**
+     * 解码二进制消息
+     */
+    public MessageDto decodeMessage(ByteBuffer buffer, String toAgentId) {
+        return messageCodec.decode(buffer).toMessageDto(toAgentId);
     }
 
     /**
      * 获取智能体消息队列大小
      */
     public int getAgentQueueSize(String agentId) {
-        BlockingQueue<MessageDto> queue = agentMessageQueues.get(agentId);
-        return queue != null ? queue.size() : 0;
+        AgentMailbox mailbox = mailboxRegistry.get(agentId);
+        return mailbox != null ? mailbox.size() : 0;
     }
 
     /**
      * 清空智能体消息队列
      */
     public void clearAgentQueue(String agentId) {
-        BlockingQueue<MessageDto> queue = agentMessageQueues.get(agentId);
-        if (queue != null) {
-            queue.clear();
+        AgentMailbox mailbox = mailboxRegistry.get(agentId);
+        if (mailbox != null) {
+            deadLetterService.moveToDeadLetters(mailbox, DeadLetterReason.CLEARED);
         }
     }
 
@@ -237,15 +483,111 @@ public class AgentCommunicationService {
      */
     public Map<String, Object> getCommunicationStats() {
         Map<String, Object> stats = new ConcurrentHashMap<>();
-        stats.put("totalAgents", agentConnections.size());
+        stats.put("totalAgents", mailboxRegistry.size());
         stats.put("onlineAgents", getOnlineAgents().size());
         
         Map<String, Integer> queueSizes = new ConcurrentHashMap<>();
-        agentMessageQueues.forEach((agentId, queue) -> {
-            queueSizes.put(agentId, queue.size());
+        Map<String, Map<MessageLane, Integer>> laneSizes = new ConcurrentHashMap<>();
+        Map<String, Long> droppedCounts = new ConcurrentHashMap<>();
+        Map<String, Long> rejectedCounts = new ConcurrentHashMap<>();
+        mailboxRegistry.mailboxes().forEach((agentId, mailbox) -> {
+            queueSizes.put(agentId, mailbox.size());
+            laneSizes.put(agentId, mailbox.laneSizes());
+            droppedCounts.put(agentId, mailbox.getDroppedCount());
+            rejectedCounts.put(agentId, mailbox.getRejectedCount());
         });
         stats.put("queueSizes", queueSizes);
+        stats.put("laneSizes", laneSizes);
+        stats.put("droppedCounts", droppedCounts);
+        stats.put("rejectedCounts", rejectedCounts);
+        stats.put("pendingRequests", requestCorrelator.pendingCount());
+        stats.put("activeConsumers", agentConsumers.size());
+        stats.put("deadLetters", deadLetterService.size());
         
         return stats;
     }
-}
\ No newline at end of file
+
+    private CompletableFuture<MessageDto> registerRequest(MessageDto message, long timeoutMs) {
+        String correlationId = requestCorrelator.nextCorrelationId();
+        message.setCorrelationId(correlationId);
+        return requestCorrelator.register(correlationId, timeoutMs);
+    }
+
+    private MessageDto createMessage(String messageType, MessagePayload payload) {
+        MessageDto message = new MessageDto();
+        message.setType(messageType);
+        message.setPayload(payload);
+        return message;
+    }
+
+    /**
+     * 点对点投递，未被接收的消息进入死信队列。
+     * 启用消息日志时先写日志再入队，进入死信的消息沿用这条日志记录
+     */
+    private SendResult deliverOrDeadLetter(AgentMailbox mailbox, MessageEnvelope envelope) {
+        String agentId = mailbox.getAgentId();
+        MessageEnvelope journaled;
+        SendResult result;
+        mailbox.getJournalLock().lock();
+        try {
+            journaled = messageJournal.append(agentId, envelope);
+            result = mailbox.tryOffer(journaled);
+        } finally {
+            mailbox.getJournalLock().unlock();
+        }
+        if (result == null) {
+            // BLOCK策略下通道已满，在锁外等待空位，避免其他发送方跟着等待
+            result = mailbox.offer(journaled);
+        }
+        if (!result.isAccepted()) {
+            deadLetterService.deadLetter(agentId, journaled, DeadLetterReason.of(result));
+        }
+        messageJournal.awaitDurable(journaled);
+        return result;
+    }
+
+    /**
+     * 把上次运行中未确认的消息放回新邮箱，此时邮箱尚未对发送方可见
+     */
+    private void replayJournal(AgentMailbox mailbox) {
+        List<MessageEnvelope> recovered = messageJournal.drainRecovered(mailbox.getAgentId());
+        int replayed = 0;
+        for (MessageEnvelope envelope : recovered) {
+            SendResult result = mailbox.offer(envelope);
+            if (result.isAccepted()) {
+                replayed++;
+            } else {
+                deadLetterService.deadLetter(mailbox.getAgentId(), envelope, DeadLetterReason.of(result));
+            }
+        }
+        if (replayed < recovered.size()) {
+            log.warn("邮箱容量不足，未回放的消息转入死信: agentId={}, replayed={}, total={}",
+                    mailbox.getAgentId(), replayed, recovered.size());
+        } else if (replayed > 0) {
+            log.info("回放未确认的消息: agentId={}, count={}", mailbox.getAgentId(), replayed);
+        }
+    }
+
+    private int publish(String fromAgentId, MessageEnvelope envelope, AgentMailbox[] mailboxes) {
+        int delivered = 0;
+        for (AgentMailbox mailbox : mailboxes) {
+            if (!mailbox.getAgentId().equals(fromAgentId) && mailbox.offer(envelope).isAccepted()) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    private int drain(String agentId, AgentMailbox mailbox, List<MessageDto> batch, int maxMessages) {
+        int drained = 0;
+        while (drained < maxMessages) {
+            MessageEnvelope envelope = mailbox.poll();
+            if (envelope == null) {
+                break;
+            }
+            batch.add(envelope.toMessageDto(agentId));
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,245 @@
+package com.smartfa.cluster.service;
+
+import com.smartfa.cluster.entity.Agent;
+import com.smartfa.cluster.messaging.AgentMailbox;
+import com.smartfa.cluster.messaging.LaneScheduling;
+import com.smartfa.cluster.messaging.LoadBalanceStrategy;
+import com.smartfa.cluster.messaging.MailboxOverflowPolicy;
+import com.smartfa.cluster.messaging.MessageEnvelope;
+import com.smartfa.cluster.messaging.TopicRouter;
+import com.smartfa.cluster.messaging.WaitStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 智能体邮箱注册表，维护邮箱、连接状态和订阅关系，并预先计算在线邮箱和路由快照
+ */
+@Component
+public class AgentMailboxRegistry {
+
+    private static final AgentMailbox[] NO_MAILBOXES = new AgentMailbox[0];
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${agent.mailbox.capacity:1024}")
+    private int defaultCapacity;
+
+    @Value("${agent.mailbox.overflow-policy:REJECT}")
+    private MailboxOverflowPolicy defaultOverflowPolicy;
+
+    @Value("${agent.mailbox.block-timeout-ms:100}")
+    private long blockTimeoutMs;
+
+    @Value("${agent.mailbox.wait-strategy:PARK}")
+    private WaitStrategy waitStrategy;
+
+    @Value("${agent.mailbox.lane-scheduling:WEIGHTED}")
+    private LaneScheduling laneScheduling;
+
+    @Value("${agent.routing.strategy:LEAST_DEPTH}")
+    private LoadBalanceStrategy routingStrategy;
+
+    // 智能体邮箱
+    private final Map<String, AgentMailbox> agentMailboxes = new ConcurrentHashMap<>();
+
+    // 智能体连接状态
+    private final Map<String, Boolean> agentConnections = new ConcurrentHashMap<>();
+
+    // 智能体类型
+    private final Map<String, Agent.AgentType> agentTypes = new ConcurrentHashMap<>();
+
+    // 智能体订阅的能力
+    private final Map<String, Set<String>> agentCapabilities = new ConcurrentHashMap<>();
+
+    // 在线邮箱快照，注册、注销和连接状态变化时重建
+    private volatile AgentMailbox[] onlineMailboxes = NO_MAILBOXES;
+
+    // 按能力和类型的订阅表
+    private TopicRouter topicRouter;
+
+    @PostConstruct
+    public void init() {
+        topicRouter = new TopicRouter(routingStrategy);
+    }
+
+    /**
+     * 按全局等待策略和通道调度方式创建邮箱，创建后需调用register才对发送方可见
+     *
+     * @param capacity 邮箱容量，为null时使用默认容量
+     * @param overflowPolicy 溢出策略，为null时使用默认策略
+     * @param dropListener DROP_OLDEST策略下被挤出邮箱的消息
+     */
+    public AgentMailbox createMailbox(String agentId, Integer capacity, MailboxOverflowPolicy overflowPolicy,
+                                      Consumer<MessageEnvelope> dropListener) {
+        return new AgentMailbox(agentId, capacity != null ? capacity : defaultCapacity,
+                overflowPolicy != null ? overflowPolicy : defaultOverflowPolicy, waitStrategy, laneScheduling,
+                blockTimeoutMs, dropListener, meterRegistry);
+    }
+
+    /**
+     * 登记邮箱并标记为在线
+     *
+     * @param agentType 智能体类型，为null时不加入任何类型分组
+     * @return 被替换的旧邮箱，没有时返回null
+     */
+    public AgentMailbox register(String agentId, Agent.AgentType agentType, AgentMailbox mailbox) {
+        synchronized (this) {
+            AgentMailbox previous = agentMailboxes.put(agentId, mailbox);
+            if (agentType != null) {
+                agentTypes.put(agentId, agentType);
+            } else {
+                agentTypes.remove(agentId);
+            }
+            agentConnections.put(agentId, true);
+            rebuildSnapshots();
+            return previous;
+        }
+    }
+
+    /**
+     * 移除邮箱、连接状态和订阅关系
+     *
+     * @return 被移除的邮箱，未注册时返回null
+     */
+    public AgentMailbox unregister(String agentId) {
+        synchronized (this) {
+            AgentMailbox mailbox = agentMailboxes.remove(agentId);
+            agentConnections.remove(agentId);
+            agentTypes.remove(agentId);
+            agentCapabilities.remove(agentId);
+            rebuildSnapshots();
+            return mailbox;
+        }
+    }
+
+    public AgentMailbox get(String agentId) {
+        return agentMailboxes.get(agentId);
+    }
+
+    /**
+     * 在线智能体的邮箱，未注册或离线时返回null
+     */
+    public AgentMailbox getConnected(String agentId) {
+        return isConnected(agentId) ? agentMailboxes.get(agentId) : null;
+    }
+
+    public boolean isConnected(String agentId) {
+        return agentConnections.getOrDefault(agentId, false);
+    }
+
+    public void setConnected(String agentId, boolean connected) {
+        synchronized (this) {
+            agentConnections.put(agentId, connected);
+            rebuildSnapshots();
+        }
+    }
+
+    public void subscribeCapability(String agentId, String capability) {
+        synchronized (this) {
+            agentCapabilities.computeIfAbsent(agentId, id -> ConcurrentHashMap.newKeySet()).add(capability);
+            rebuildSnapshots();
+        }
+    }
+
+    public void unsubscribeCapability(String agentId, String capability) {
+        synchronized (this) {
+            Set<String> capabilities = agentCapabilities.get(agentId);
+            if (capabilities != null && capabilities.remove(capability)) {
+                rebuildSnapshots();
+            }
+        }
+    }
+
+    public void setTopicStrategy(String topic, LoadBalanceStrategy strategy) {
+        synchronized (this) {
+            topicRouter.setStrategy(topic, strategy);
+            rebuildSnapshots();
+        }
+    }
+
+    /**
+     * 按负载均衡策略选出一个具备指定能力的在线邮箱（不含发送方），没有时返回null
+     */
+    public AgentMailbox routeByCapability(String capability, String fromAgentId) {
+        return topicRouter.routeByCapability(capability, fromAgentId);
+    }
+
+    /**
+     * 按负载均衡策略选出一个指定类型的在线邮箱（不含发送方），没有时返回null
+     */
+    public AgentMailbox routeByType(Agent.AgentType agentType, String fromAgentId) {
+        return topicRouter.routeByType(agentType, fromAgentId);
+    }
+
+    /**
+     * 指定类型的全部在线邮箱
+     */
+    public AgentMailbox[] typeMembers(Agent.AgentType agentType) {
+        return topicRouter.typeMembers(agentType);
+    }
+
+    /**
+     * 全部在线邮箱，返回的数组为共享快照，调用方不可修改
+     */
+    public AgentMailbox[] onlineMailboxes() {
+        return onlineMailboxes;
+    }
+
+    public List<String> getOnlineAgents() {
+        return agentConnections.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * 已注册的智能体数（含离线）
+     */
+    public int size() {
+        return agentConnections.size();
+    }
+
+    /**
+     * 全部邮箱的只读视图
+     */
+    public Map<String, AgentMailbox> mailboxes() {
+        return Collections.unmodifiableMap(agentMailboxes);
+    }
+
+    /**
+     * 重建在线邮箱快照和能力、类型订阅表，调用方需持有this锁
+     */
+    private void rebuildSnapshots() {
+        List<AgentMailbox> online = new ArrayList<>();
+        Map<Agent.AgentType, List<AgentMailbox>> byType = new EnumMap<>(Agent.AgentType.class);
+        Map<String, List<AgentMailbox>> byCapability = new HashMap<>();
+        agentMailboxes.forEach((agentId, mailbox) -> {
+            if (!isConnected(agentId)) {
+                return;
+            }
+            online.add(mailbox);
+            Agent.AgentType agentType = agentTypes.get(agentId);
+            if (agentType != null) {
+                byType.computeIfAbsent(agentType, type -> new ArrayList<>()).add(mailbox);
+            }
+            agentCapabilities.getOrDefault(agentId, Set.of()).forEach(capability ->
+                    byCapability.computeIfAbsent(capability, key -> new ArrayList<>()).add(mailbox));
+        });
+        topicRouter.rebuild(byCapability, byType);
+        this.onlineMailboxes = online.toArray(NO_MAILBOXES);
+    }
+}
@@ -0,0 +1,125 @@
+package com.smartfa.cluster.service;
+
+import com.smartfa.cluster.messaging.MessageCodec;
+import com.smartfa.cluster.messaging.MessageEnvelope;
+import com.smartfa.cluster.messaging.MessageJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * 智能体消息日志组件，按配置打开MessageJournal；未启用时各操作直接返回
+ */
+@Component
+public class AgentMessageJournal {
+
+    @Autowired
+    private MessageCodec messageCodec;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${agent.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${agent.journal.dir:./data/agent-journal}")
+    private String journalDir;
+
+    @Value("${agent.journal.segment-size-mb:64}")
+    private int journalSegmentSizeMb;
+
+    @Value("${agent.journal.flush-interval-ms:5}")
+    private long journalFlushIntervalMs;
+
+    @Value("${agent.journal.sync:false}")
+    private boolean journalSync;
+
+    // 消息日志，未启用时为null
+    private MessageJournal messageJournal;
+
+    @PostConstruct
+    public void init() {
+        if (!journalEnabled) {
+            return;
+        }
+        messageJournal = new MessageJournal(Path.of(journalDir), journalSegmentSizeMb * 1024 * 1024,
+                journalFlushIntervalMs, journalSync, messageCodec, meterRegistry);
+        try {
+            messageJournal.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("消息日志初始化失败: " + journalDir, e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (messageJournal != null) {
+            messageJournal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return messageJournal != null;
+    }
+
+    /**
+     * 写入日志，同一邮箱的写入与首次入队尝试需在邮箱的日志锁内完成
+     *
+     * @return 带日志偏移的信封；未启用或信封已写入日志时原样返回
+     */
+    public MessageEnvelope append(String agentId, MessageEnvelope envelope) {
+        if (messageJournal == null || envelope.journalOffset() >= 0) {
+            return envelope;
+        }
+        return envelope.withJournalOffset(messageJournal.append(agentId, envelope));
+    }
+
+    /**
+     * 同步模式下等待信封所在记录刷盘
+     */
+    public void awaitDurable(MessageEnvelope envelope) {
+        if (messageJournal != null && envelope.journalOffset() >= 0) {
+            messageJournal.awaitDurable(envelope.journalOffset());
+        }
+    }
+
+    /**
+     * 确认单条消息已处理
+     */
+    public void acknowledge(String agentId, long offset) {
+        if (messageJournal != null) {
+            messageJournal.acknowledge(agentId, offset);
+        }
+    }
+
+    /**
+     * 作废不会再被消费的消息（溢出丢弃、死信淘汰或手动丢弃），避免低水位停在它之前
+     */
+    public void discard(String agentId, MessageEnvelope envelope) {
+        if (messageJournal != null && envelope.journalOffset() >= 0) {
+            messageJournal.discard(agentId, envelope.journalOffset());
+        }
+    }
+
+    /**
+     * 取出智能体在上次运行中未确认的消息
+     */
+    public List<MessageEnvelope> drainRecovered(String agentId) {
+        return messageJournal != null ? messageJournal.drainRecovered(agentId) : List.of();
+    }
+
+    /**
+     * 供消费者使用的确认回调，未启用时返回null
+     */
+    public LongConsumer acknowledger(String agentId) {
+        return messageJournal != null ? offset -> messageJournal.acknowledge(agentId, offset) : null;
+    }
+}
@@ -0,0 +1,164 @@
+package com.smartfa.cluster.service;
+
+import com.smartfa.cluster.messaging.AgentMailbox;
+import com.smartfa.cluster.messaging.DeadLetter;
+import com.smartfa.cluster.messaging.DeadLetterReason;
+import com.smartfa.cluster.messaging.DeadLetterStore;
+import com.smartfa.cluster.messaging.MessageEnvelope;
+import com.smartfa.cluster.messaging.SendResult;
+import com.smartfa.common.enums.ResultCode;
+import com.smartfa.common.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 死信服务
+ * 无法投递的消息进入死信队列，智能体恢复连接后按指数退避重投；
+ * 启用消息日志时死信保留日志记录，重投并确认或被丢弃后才作废，重启后随智能体注册回放
+ */
+@Service
+public class DeadLetterService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AgentMailboxRegistry mailboxRegistry;
+
+    @Autowired
+    private AgentMessageJournal messageJournal;
+
+    @Value("${agent.dead-letter.capacity:10000}")
+    private int deadLetterCapacity;
+
+    @Value("${agent.dead-letter.initial-backoff-ms:500}")
+    private long deadLetterInitialBackoffMs;
+
+    @Value("${agent.dead-letter.max-backoff-ms:60000}")
+    private long deadLetterMaxBackoffMs;
+
+    @Value("${agent.dead-letter.max-attempts:10}")
+    private int deadLetterMaxAttempts;
+
+    private DeadLetterStore deadLetterStore;
+
+    @PostConstruct
+    public void init() {
+        deadLetterStore = new DeadLetterStore(deadLetterCapacity, deadLetterInitialBackoffMs,
+                deadLetterMaxBackoffMs, deadLetterMaxAttempts,
+                evicted -> messageJournal.discard(evicted.getAgentId(), evicted.getEnvelope()), meterRegistry);
+    }
+
+    /**
+     * 加入死信队列；尚未写入日志的死信先写日志，保证重启后仍能回放。
+     * 请求-响应消息由调用方的Future感知失败，不进入死信，已写入的日志记录直接作废
+     */
+    public void deadLetter(String agentId, MessageEnvelope envelope, DeadLetterReason reason) {
+        if (envelope.correlationId() != null) {
+            messageJournal.discard(agentId, envelope);
+            return;
+        }
+        deadLetterStore.add(agentId, messageJournal.append(agentId, envelope), reason);
+    }
+
+    /**
+     * 把邮箱中剩余的消息全部转入死信，不经过邮箱的通道调度
+     */
+    public void moveToDeadLetters(AgentMailbox mailbox, DeadLetterReason reason) {
+        mailbox.drainAll(envelope -> deadLetter(mailbox.getAgentId(), envelope, reason));
+    }
+
+    /**
+     * 查询死信
+     *
+     * @param agentId 目标智能体，为null时不限
+     * @param reason 死信原因，为null时不限
+     */
+    public List<DeadLetter> getDeadLetters(String agentId, DeadLetterReason reason, int limit) {
+        return deadLetterStore.list(agentId, reason, limit);
+    }
+
+    /**
+     * 立即重放一条死信，不受退避时间和原因限制
+     */
+    public SendResult replayDeadLetter(long deadLetterId) {
+        DeadLetter letter = deadLetterStore.get(deadLetterId);
+        if (letter == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "死信不存在");
+        }
+        SendResult result = deadLetterStore.redeliver(letter, this::deliver);
+        if (result == null) {
+            throw new BusinessException(ResultCode.SYSTEM_BUSY, "死信正在重投中");
+        }
+        return result;
+    }
+
+    /**
+     * 立即重放某个智能体的全部死信
+     *
+     * @return 成功投递的条数
+     */
+    public int replayDeadLetters(String agentId) {
+        int delivered = 0;
+        for (DeadLetter letter : deadLetterStore.forAgent(agentId)) {
+            SendResult result = deadLetterStore.redeliver(letter, this::deliver);
+            if (result != null && result.isAccepted()) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * 丢弃一条死信并作废其日志记录
+     */
+    public void discardDeadLetter(long deadLetterId) {
+        DeadLetter letter = deadLetterStore.get(deadLetterId);
+        if (letter == null || !deadLetterStore.remove(letter)) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "死信不存在");
+        }
+        messageJournal.discard(letter.getAgentId(), letter.getEnvelope());
+    }
+
+    /**
+     * 智能体恢复连接时立即重投它的可重试死信
+     */
+    public void redeliver(String agentId) {
+        deadLetterStore.retryNow(agentId);
+        for (DeadLetter letter : deadLetterStore.forAgent(agentId)) {
+            if (letter.getReason().isRetryable()) {
+                deadLetterStore.redeliver(letter, this::deliver);
+            }
+        }
+    }
+
+    /**
+     * 按退避时间重投已到期的死信
+     */
+    @Scheduled(fixedDelayString = "${agent.dead-letter.retry-interval-ms:1000}")
+    public void retryDeadLetters() {
+        for (DeadLetter letter : deadLetterStore.due()) {
+            if (mailboxRegistry.isConnected(letter.getAgentId())) {
+                deadLetterStore.redeliver(letter, this::deliver);
+            }
+        }
+    }
+
+    public int size() {
+        return deadLetterStore.size();
+    }
+
+    /**
+     * 死信已写入日志时沿用原偏移入队，由消费者确认后作废
+     */
+    private SendResult deliver(DeadLetter letter) {
+        AgentMailbox mailbox = mailboxRegistry.getConnected(letter.getAgentId());
+        return mailbox != null ? mailbox.offer(letter.getEnvelope()) : SendResult.NOT_CONNECTED;
+    }
+}
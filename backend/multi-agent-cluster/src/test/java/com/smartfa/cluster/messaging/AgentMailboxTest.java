@@ -0,0 +1,302 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.dto.MessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 智能体邮箱测试类
+ */
+class AgentMailboxTest {
+
+    private final List<MessageEnvelope> dropped = new ArrayList<>();
+
+    @Test
+    void testOffer_RejectWhenLaneIsFull() {
+        // Given TASK通道容量为邮箱容量的一半
+        AgentMailbox mailbox = mailbox(8, MailboxOverflowPolicy.REJECT, LaneScheduling.STRICT);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(SendResult.DELIVERED, mailbox.offer(envelope("TASK_ASSIGNMENT", i)));
+        }
+
+        // When
+        SendResult result = mailbox.offer(envelope("TASK_ASSIGNMENT", 4));
+
+        // Then
+        assertEquals(SendResult.REJECTED_FULL, result);
+        assertEquals(1, mailbox.getRejectedCount());
+        assertEquals(4, mailbox.size());
+    }
+
+    @Test
+    void testOffer_DropOldestWhenLaneIsFull() {
+        // Given
+        AgentMailbox mailbox = mailbox(8, MailboxOverflowPolicy.DROP_OLDEST, LaneScheduling.STRICT);
+        for (int i = 0; i < 4; i++) {
+            mailbox.offer(envelope("TASK_ASSIGNMENT", i));
+        }
+
+        // When
+        SendResult result = mailbox.offer(envelope("TASK_ASSIGNMENT", 4));
+
+        // Then
+        assertEquals(SendResult.DELIVERED_DROPPED_OLDEST, result);
+        assertEquals(1, mailbox.getDroppedCount());
+        assertEquals(1, dropped.size());
+        assertEquals(0L, dropped.get(0).id());
+        assertEquals(1L, mailbox.poll().id());
+    }
+
+    @Test
+    void testOffer_BlockTimesOutWhenLaneStaysFull() {
+        // Given
+        AgentMailbox mailbox = mailbox(8, MailboxOverflowPolicy.BLOCK, LaneScheduling.STRICT);
+        for (int i = 0; i < 4; i++) {
+            mailbox.offer(envelope("TASK_ASSIGNMENT", i));
+        }
+
+        // When
+        SendResult result = mailbox.offer(envelope("TASK_ASSIGNMENT", 4));
+
+        // Then
+        assertEquals(SendResult.TIMEOUT, result);
+        assertEquals(4, mailbox.size());
+    }
+
+    @Test
+    void testOffer_BlockWaitsForConsumerToFreeSpace() throws InterruptedException {
+        // Given
+        AgentMailbox mailbox = new AgentMailbox("agent-a", 8, MailboxOverflowPolicy.BLOCK, WaitStrategy.PARK,
+                LaneScheduling.STRICT, 5_000, dropped::add, new SimpleMeterRegistry());
+        for (int i = 0; i < 4; i++) {
+            mailbox.offer(envelope("TASK_ASSIGNMENT", i));
+        }
+        Thread consumer = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mailbox.poll();
+        });
+
+        // When
+        SendResult result = mailbox.offer(envelope("TASK_ASSIGNMENT", 4));
+        consumer.join();
+
+        // Then
+        assertEquals(SendResult.DELIVERED, result);
+        assertEquals(4, mailbox.size());
+    }
+
+    @Test
+    void testTryOffer_ReturnsNullInsteadOfBlocking() {
+        // Given
+        AgentMailbox mailbox = mailbox(8, MailboxOverflowPolicy.BLOCK, LaneScheduling.STRICT);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(SendResult.DELIVERED, mailbox.tryOffer(envelope("TASK_ASSIGNMENT", i)));
+        }
+
+        // When
+        SendResult result = mailbox.tryOffer(envelope("TASK_ASSIGNMENT", 4));
+
+        // Then
+        assertNull(result);
+        assertEquals(0, mailbox.getRejectedCount());
+        assertEquals(4, mailbox.size());
+    }
+
+    @Test
+    void testOffer_FullBulkLaneDoesNotBlockControlMessages() {
+        // Given BULK通道容量为邮箱容量的1/4
+        AgentMailbox mailbox = mailbox(8, MailboxOverflowPolicy.REJECT, LaneScheduling.STRICT);
+        mailbox.offer(envelope("TASK_STATUS", 0));
+        mailbox.offer(envelope("TASK_STATUS", 1));
+        assertEquals(SendResult.REJECTED_FULL, mailbox.offer(envelope("TASK_STATUS", 2)));
+
+        // When
+        SendResult result = mailbox.offer(envelope("HEARTBEAT", 3));
+
+        // Then
+        assertEquals(SendResult.DELIVERED, result);
+        assertEquals("HEARTBEAT", mailbox.poll().messageType());
+    }
+
+    @Test
+    void testPoll_StrictPriority() {
+        // Given
+        AgentMailbox mailbox = mailbox(64, MailboxOverflowPolicy.REJECT, LaneScheduling.STRICT);
+        mailbox.offer(envelope("TASK_STATUS", 0));
+        mailbox.offer(envelope("TASK_ASSIGNMENT", 1));
+        mailbox.offer(envelope("HEARTBEAT", 2));
+
+        // When & Then
+        assertEquals("HEARTBEAT", mailbox.poll().messageType());
+        assertEquals("TASK_ASSIGNMENT", mailbox.poll().messageType());
+        assertEquals("TASK_STATUS", mailbox.poll().messageType());
+        assertNull(mailbox.poll());
+    }
+
+    @Test
+    void testPoll_WeightedFairDoesNotStarveBulkLane() {
+        // Given
+        AgentMailbox mailbox = mailbox(64, MailboxOverflowPolicy.REJECT, LaneScheduling.WEIGHTED);
+        for (int i = 0; i < 12; i++) {
+            mailbox.offer(envelope("HEARTBEAT", i));
+        }
+        for (int i = 0; i < 3; i++) {
+            mailbox.offer(envelope("TASK_STATUS", 100 + i));
+        }
+
+        // When
+        List<String> order = new ArrayList<>();
+        MessageEnvelope message;
+        while ((message = mailbox.poll()) != null) {
+            order.add(message.messageType());
+        }
+
+        // Then CONTROL每轮取8条，BULK每轮取1条
+        List<String> expected = new ArrayList<>();
+        expected.addAll(repeat("HEARTBEAT", 8));
+        expected.add("TASK_STATUS");
+        expected.addAll(repeat("HEARTBEAT", 4));
+        expected.addAll(repeat("TASK_STATUS", 2));
+        assertEquals(expected, order);
+    }
+
+    @Test
+    void testDrainAll_TakesEveryLaneInPriorityOrder() {
+        // Given
+        AgentMailbox mailbox = mailbox(64, MailboxOverflowPolicy.REJECT, LaneScheduling.WEIGHTED);
+        mailbox.offer(envelope("TASK_STATUS", 0));
+        mailbox.offer(envelope("TASK_ASSIGNMENT", 1));
+        mailbox.offer(envelope("HEARTBEAT", 2));
+
+        // When
+        List<MessageEnvelope> drained = new ArrayList<>();
+        int count = mailbox.drainAll(drained::add);
+
+        // Then
+        assertEquals(3, count);
+        assertEquals(List.of(2L, 1L, 0L), drained.stream().map(MessageEnvelope::id).toList());
+        assertEquals(0, mailbox.size());
+    }
+
+    @Test
+    void testTakeBatch_ReturnsArrivedMessages() throws InterruptedException {
+        // Given
+        AgentMailbox mailbox = mailbox(64, MailboxOverflowPolicy.REJECT, LaneScheduling.STRICT);
+        for (int i = 0; i < 5; i++) {
+            mailbox.offer(envelope("TASK_ASSIGNMENT", i));
+        }
+
+        // When
+        List<MessageEnvelope> batch = new ArrayList<>();
+        int taken = mailbox.takeBatch(batch, 3);
+
+        // Then
+        assertEquals(3, taken);
+        assertEquals(List.of(0L, 1L, 2L), batch.stream().map(MessageEnvelope::id).toList());
+        assertEquals(2, mailbox.size());
+    }
+
+    @Test
+    void testTakeBatch_ConcurrentProducersLoseNothing() throws InterruptedException {
+        // Given
+        AgentMailbox mailbox = mailbox(64, MailboxOverflowPolicy.BLOCK, LaneScheduling.STRICT);
+        int producers = 4;
+        int perProducer = 500;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = p * (long) perProducer;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    MessageEnvelope message = envelope("TASK_ASSIGNMENT", base + i);
+                    while (!mailbox.offer(message).isAccepted()) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        // When
+        Set<Long> received = new HashSet<>();
+        List<MessageEnvelope> batch = new ArrayList<>();
+        while (received.size() < producers * perProducer) {
+            batch.clear();
+            mailbox.takeBatch(batch, 16);
+            batch.forEach(message -> assertTrue(received.add(message.id()), "duplicate " + message.id()));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, mailbox.size());
+    }
+
+    @Test
+    void testTake_WakesEveryWaitingThread() throws Exception {
+        // Given 订阅的消费者和拉取接口的调用方同时等待
+        AgentMailbox mailbox = mailbox(64, MailboxOverflowPolicy.REJECT, LaneScheduling.STRICT);
+        List<CompletableFuture<MessageEnvelope>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<MessageEnvelope> result = new CompletableFuture<>();
+            Thread.ofVirtual().start(() -> {
+                try {
+                    result.complete(mailbox.take());
+                } catch (InterruptedException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            results.add(result);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (mailbox.getWaitingCount() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(2, mailbox.getWaitingCount());
+
+        // When
+        mailbox.offer(envelope("TASK_ASSIGNMENT", 0));
+        mailbox.offer(envelope("TASK_ASSIGNMENT", 1));
+
+        // Then
+        Set<Long> received = new HashSet<>();
+        for (CompletableFuture<MessageEnvelope> result : results) {
+            received.add(result.get(1, TimeUnit.SECONDS).id());
+        }
+        assertEquals(Set.of(0L, 1L), received);
+        assertEquals(0, mailbox.getWaitingCount());
+    }
+
+    private AgentMailbox mailbox(int capacity, MailboxOverflowPolicy policy, LaneScheduling scheduling) {
+        return new AgentMailbox("agent-a", capacity, policy, WaitStrategy.PARK, scheduling, 20,
+                dropped::add, new SimpleMeterRegistry());
+    }
+
+    private static MessageEnvelope envelope(String messageType, long id) {
+        MessageDto message = new MessageDto();
+        message.setId(id);
+        message.setType(messageType);
+        return MessageEnvelope.of("sender", message);
+    }
+
+    private static List<String> repeat(String value, int times) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            values.add(value);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,132 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.dto.MessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 死信存储测试类
+ */
+class DeadLetterStoreTest {
+
+    private static final long INITIAL_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 2_500;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final List<DeadLetter> evicted = new ArrayList<>();
+
+    private DeadLetterStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new DeadLetterStore(2, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS, MAX_ATTEMPTS, evicted::add,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRedeliver_BacksOffExponentiallyUntilExhausted() {
+        // Given
+        DeadLetter letter = store.add("agent-a", envelope(1L), DeadLetterReason.NOT_CONNECTED);
+        assertEquals(List.of(letter), store.due());
+
+        // When & Then 第1、2次失败后分别退避1秒、2秒
+        assertBackoff(letter, INITIAL_BACKOFF_MS);
+        assertTrue(store.due().isEmpty());
+        assertBackoff(letter, INITIAL_BACKOFF_MS * 2);
+
+        // 第3次失败达到最大次数，不再自动重投
+        assertEquals(SendResult.NOT_CONNECTED, store.redeliver(letter, failed -> SendResult.NOT_CONNECTED));
+        assertEquals(MAX_ATTEMPTS, letter.getAttempts());
+        assertEquals(DeadLetterReason.RETRIES_EXHAUSTED, letter.getReason());
+        assertNull(letter.getNextRetryTime());
+        letter.retryNow();
+        assertTrue(store.due().isEmpty());
+        assertSame(letter, store.get(letter.getId()));
+    }
+
+    @Test
+    void testRedeliver_BackoffIsCappedAtMaximum() {
+        // Given
+        store = new DeadLetterStore(2, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS, 10, evicted::add,
+                new SimpleMeterRegistry());
+        DeadLetter letter = store.add("agent-a", envelope(1L), DeadLetterReason.MAILBOX_FULL);
+
+        // When & Then 第3次起为4秒，被限制为2.5秒
+        assertBackoff(letter, INITIAL_BACKOFF_MS);
+        assertBackoff(letter, INITIAL_BACKOFF_MS * 2);
+        assertBackoff(letter, MAX_BACKOFF_MS);
+    }
+
+    @Test
+    void testRedeliver_RemovesLetterOnSuccess() {
+        // Given
+        DeadLetter letter = store.add("agent-a", envelope(1L), DeadLetterReason.NOT_CONNECTED);
+
+        // When
+        SendResult result = store.redeliver(letter, delivered -> SendResult.DELIVERED);
+
+        // Then
+        assertEquals(SendResult.DELIVERED, result);
+        assertNull(store.get(letter.getId()));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRedeliver_SkipsLetterClaimedByAnotherThread() {
+        // Given
+        DeadLetter letter = store.add("agent-a", envelope(1L), DeadLetterReason.NOT_CONNECTED);
+        assertTrue(letter.tryClaim());
+
+        // When
+        SendResult result = store.redeliver(letter, delivered -> SendResult.DELIVERED);
+
+        // Then
+        assertNull(result);
+        assertSame(letter, store.get(letter.getId()));
+    }
+
+    @Test
+    void testAdd_EvictsOldestOverCapacity() {
+        // Given
+        DeadLetter first = store.add("agent-a", envelope(1L), DeadLetterReason.NOT_CONNECTED);
+        store.add("agent-a", envelope(2L), DeadLetterReason.NOT_CONNECTED);
+
+        // When
+        store.add("agent-b", envelope(3L), DeadLetterReason.MAILBOX_FULL);
+
+        // Then
+        assertEquals(2, store.size());
+        assertEquals(List.of(first), evicted);
+        assertNull(store.get(first.getId()));
+        assertEquals(1, store.list(null, DeadLetterReason.MAILBOX_FULL, 10).size());
+        assertEquals(1, store.forAgent("agent-a").size());
+    }
+
+    private void assertBackoff(DeadLetter letter, long expectedMs) {
+        long before = System.currentTimeMillis();
+        assertEquals(SendResult.NOT_CONNECTED, store.redeliver(letter, failed -> SendResult.NOT_CONNECTED));
+        long after = System.currentTimeMillis();
+        long nextRetry = toMillis(letter.getNextRetryTime());
+        assertTrue(nextRetry >= before + expectedMs && nextRetry <= after + expectedMs,
+                "expected backoff " + expectedMs + "ms, next retry in " + (nextRetry - before) + "ms");
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static MessageEnvelope envelope(long id) {
+        MessageDto message = new MessageDto();
+        message.setId(id);
+        message.setType("TASK_ASSIGNMENT");
+        return MessageEnvelope.of("sender", message);
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartfa.cluster.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 消息编解码器测试类
+ */
+class MessageCodecTest {
+
+    private MessageCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new MessageCodec(new ObjectMapper());
+    }
+
+    @Test
+    void testEncodeDecode_TypedPayloadRoundTrip() {
+        // Given
+        LocalDateTime sendTime = LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_456_789);
+        MessagePayload payload = new MessagePayload.TaskAssignment("task-1", "INSPECTION",
+                Map.of("priority", 3L, "tags", List.of("wafer", "sem"), "urgent", true));
+        MessageEnvelope envelope = new MessageEnvelope(42L, "coordinator", "TASK_ASSIGNMENT", null, payload,
+                "PENDING", "corr-1", sendTime, 1_760_000_000_000L);
+
+        // When
+        MessageEnvelope decoded = codec.decode(codec.encode(envelope));
+
+        // Then
+        assertEquals(42L, decoded.id());
+        assertEquals("coordinator", decoded.fromAgentId());
+        assertEquals("TASK_ASSIGNMENT", decoded.messageType());
+        assertEquals("PENDING", decoded.status());
+        assertEquals("corr-1", decoded.correlationId());
+        assertEquals(sendTime, decoded.sendTime());
+        assertEquals(1_760_000_000_000L, decoded.timestamp());
+        assertEquals(payload, decoded.payload());
+        assertNull(decoded.content());
+    }
+
+    @Test
+    void testEncodeDecode_PlainContentWithNullFields() {
+        // Given
+        MessageEnvelope envelope = new MessageEnvelope(null, "agent-a", "NOTICE", "hello", null,
+                null, null, null, 1L);
+
+        // When
+        MessageEnvelope decoded = codec.decode(codec.encode(envelope));
+
+        // Then
+        assertNull(decoded.id());
+        assertNull(decoded.sendTime());
+        assertNull(decoded.correlationId());
+        assertNull(decoded.payload());
+        assertEquals("hello", decoded.content());
+        assertEquals("NOTICE", decoded.messageType());
+    }
+
+    @Test
+    void testDecode_DoesNotMovePosition() {
+        // Given
+        MessageEnvelope envelope = new MessageEnvelope(1L, "agent-a", "HEARTBEAT", null,
+                new MessagePayload.Heartbeat("agent-a", Map.of("cpu", 0.5), 100L), null, null, null, 1L);
+        ByteBuffer buffer = codec.encode(envelope);
+
+        // When
+        codec.decode(buffer);
+
+        // Then
+        assertEquals(0, buffer.position());
+        assertEquals(envelope.payload(), codec.decode(buffer).payload());
+    }
+
+    @Test
+    void testDecode_UnsupportedVersion() {
+        // Given
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte) (MessageCodec.VERSION + 1), 0, 0});
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(buffer));
+    }
+}
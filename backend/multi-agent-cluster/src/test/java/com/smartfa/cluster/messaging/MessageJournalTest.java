@@ -0,0 +1,219 @@
+package com.smartfa.cluster.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartfa.cluster.dto.MessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 消息日志测试类
+ */
+class MessageJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final MessageCodec codec = new MessageCodec(new ObjectMapper());
+
+    private MessageJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testRecover_ReplaysUnacknowledgedMessages() throws IOException {
+        // Given
+        journal = open();
+        long first = journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+        long second = journal.append("agent-a", envelope("TASK_STATUS"));
+        journal.append("agent-b", envelope("TASK_ASSIGNMENT"));
+
+        // When
+        journal = reopen();
+        List<MessageEnvelope> recovered = journal.drainRecovered("agent-a");
+
+        // Then
+        assertEquals(2, recovered.size());
+        assertEquals(first, recovered.get(0).journalOffset());
+        assertEquals("TASK_ASSIGNMENT", recovered.get(0).messageType());
+        assertEquals(second, recovered.get(1).journalOffset());
+        assertEquals("TASK_STATUS", recovered.get(1).messageType());
+        assertTrue(journal.drainRecovered("agent-a").isEmpty());
+        assertEquals(1, journal.drainRecovered("agent-b").size());
+    }
+
+    @Test
+    void testAcknowledge_AllMessagesAreNotReplayed() throws IOException {
+        // Given
+        journal = open();
+        long first = journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+        long second = journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+
+        // When
+        journal.acknowledge("agent-a", first);
+        journal.acknowledge("agent-a", second);
+        journal = reopen();
+
+        // Then
+        assertTrue(journal.drainRecovered("agent-a").isEmpty());
+    }
+
+    @Test
+    void testAcknowledge_OutOfOrderKeepsEarlierPendingMessage() throws IOException {
+        // Given 优先级通道中后写入的心跳先被处理
+        journal = open();
+        long task = journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+        long heartbeat = journal.append("agent-a", envelope("HEARTBEAT"));
+
+        // When
+        journal.acknowledge("agent-a", heartbeat);
+        journal = reopen();
+
+        // Then
+        List<MessageEnvelope> recovered = journal.drainRecovered("agent-a");
+        assertFalse(recovered.isEmpty());
+        assertEquals(task, recovered.get(0).journalOffset());
+    }
+
+    @Test
+    void testAcknowledge_RecoveredMessages() throws IOException {
+        // Given
+        journal = open();
+        journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+        journal = reopen();
+        List<MessageEnvelope> recovered = journal.drainRecovered("agent-a");
+
+        // When
+        journal.acknowledge("agent-a", recovered.get(0).journalOffset());
+        journal = reopen();
+
+        // Then
+        assertTrue(journal.drainRecovered("agent-a").isEmpty());
+    }
+
+    @Test
+    void testDiscard_TombstonedMessageIsNotReplayed() throws IOException {
+        // Given
+        journal = open();
+        long discarded = journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+        long kept = journal.append("agent-a", envelope("TASK_STATUS"));
+
+        // When
+        journal.discard("agent-a", discarded);
+        journal = reopen();
+
+        // Then
+        List<MessageEnvelope> recovered = journal.drainRecovered("agent-a");
+        assertEquals(1, recovered.size());
+        assertEquals(kept, recovered.get(0).journalOffset());
+    }
+
+    @Test
+    void testAppend_RollsOverToNewSegment() throws IOException {
+        // Given
+        journal = open();
+        MessageEnvelope large = new MessageEnvelope(1L, "sender", "TASK_ASSIGNMENT", "x".repeat(10_000), null,
+                null, null, null, 1L);
+
+        // When
+        long last = -1;
+        for (int i = 0; i < 10; i++) {
+            last = journal.append("agent-a", large);
+        }
+        journal = reopen();
+
+        // Then
+        assertTrue(last >= SEGMENT_SIZE);
+        List<MessageEnvelope> recovered = journal.drainRecovered("agent-a");
+        assertEquals(10, recovered.size());
+        assertEquals(10_000, recovered.get(9).content().length());
+    }
+
+    @Test
+    void testDeleteSegments_KeepsTombstoneWhileTargetIsPinned() throws IOException {
+        // Given agent-a最早的消息未确认，被作废的消息与之同在第一个分段，作废记录落在第二个分段
+        journal = open();
+        long pinned = journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+        long discarded = journal.append("agent-a", envelope("TASK_STATUS"));
+        appendAcknowledgedUntil(SEGMENT_SIZE);
+        journal.discard("agent-a", discarded);
+        appendAcknowledgedUntil(2L * SEGMENT_SIZE);
+
+        // When
+        journal.deleteAcknowledgedSegments();
+        journal = reopen();
+
+        // Then
+        List<MessageEnvelope> recovered = journal.drainRecovered("agent-a");
+        assertEquals(1, recovered.size());
+        assertEquals(pinned, recovered.get(0).journalOffset());
+    }
+
+    @Test
+    void testDeleteSegments_RemovesAcknowledgedPrefix() throws IOException {
+        // Given
+        journal = open();
+        appendAcknowledgedUntil(SEGMENT_SIZE);
+        long pending = journal.append("agent-a", envelope("TASK_ASSIGNMENT"));
+        appendAcknowledgedUntil(2L * SEGMENT_SIZE);
+
+        // When
+        journal.deleteAcknowledgedSegments();
+        journal = reopen();
+
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.anyMatch(path -> path.getFileName().toString().equals(String.format("%020d.seg", 0))));
+        }
+        List<MessageEnvelope> recovered = journal.drainRecovered("agent-a");
+        assertEquals(1, recovered.size());
+        assertEquals(pending, recovered.get(0).journalOffset());
+    }
+
+    /**
+     * 以agent-b的大消息填充日志直到写入偏移越过limit，每条写入后立即确认
+     */
+    private void appendAcknowledgedUntil(long limit) {
+        MessageEnvelope large = new MessageEnvelope(1L, "sender", "TASK_ASSIGNMENT", "x".repeat(10_000), null,
+                null, null, null, 1L);
+        long offset;
+        do {
+            offset = journal.append("agent-b", large);
+            journal.acknowledge("agent-b", offset);
+        } while (offset < limit);
+    }
+
+    private MessageJournal open() throws IOException {
+        MessageJournal opened = new MessageJournal(directory, SEGMENT_SIZE, 5, false, codec, new SimpleMeterRegistry());
+        opened.open();
+        return opened;
+    }
+
+    private MessageJournal reopen() throws IOException {
+        journal.close();
+        return open();
+    }
+
+    private static MessageEnvelope envelope(String messageType) {
+        MessageDto message = new MessageDto();
+        message.setType(messageType);
+        message.setContent("content of " + messageType);
+        return MessageEnvelope.of("sender", message);
+    }
+}
@@ -0,0 +1,112 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.dto.MessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求-响应关联器测试类
+ */
+class RequestCorrelatorTest {
+
+    private RequestCorrelator correlator;
+
+    @BeforeEach
+    void setUp() {
+        correlator = new RequestCorrelator(10, 64, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        correlator.close();
+    }
+
+    @Test
+    void testRegister_TimesOutWithoutResponse() {
+        // Given
+        String correlationId = correlator.nextCorrelationId();
+
+        // When
+        CompletableFuture<MessageDto> future = correlator.register(correlationId, 50);
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(0, correlator.pendingCount());
+        assertFalse(correlator.complete(response(correlationId)));
+    }
+
+    @Test
+    void testComplete_ResponseCompletesPendingRequest() throws Exception {
+        // Given
+        String correlationId = correlator.nextCorrelationId();
+        CompletableFuture<MessageDto> future = correlator.register(correlationId, 1000);
+        MessageDto response = response(correlationId);
+
+        // When
+        boolean completed = correlator.complete(response);
+
+        // Then
+        assertTrue(completed);
+        assertSame(response, future.get(1, TimeUnit.SECONDS));
+        assertEquals(0, correlator.pendingCount());
+        assertFalse(correlator.complete(response));
+    }
+
+    @Test
+    void testComplete_UnknownOrMissingCorrelationId() {
+        // When & Then
+        assertFalse(correlator.complete(response("unknown")));
+        assertFalse(correlator.complete(new MessageDto()));
+    }
+
+    @Test
+    void testRegister_DuplicateCorrelationId() {
+        // Given
+        correlator.register("corr-1", 1000);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> correlator.register("corr-1", 1000));
+    }
+
+    @Test
+    void testRegister_CancelRemovesPendingRequest() {
+        // Given
+        String correlationId = correlator.nextCorrelationId();
+        CompletableFuture<MessageDto> future = correlator.register(correlationId, 1000);
+
+        // When
+        future.cancel(false);
+
+        // Then
+        assertEquals(0, correlator.pendingCount());
+        assertFalse(correlator.complete(response(correlationId)));
+    }
+
+    @Test
+    void testClose_FailsPendingRequests() {
+        // Given
+        CompletableFuture<MessageDto> future = correlator.register(correlator.nextCorrelationId(), 1000);
+
+        // When
+        correlator.close();
+
+        // Then
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    private static MessageDto response(String correlationId) {
+        MessageDto response = new MessageDto();
+        response.setCorrelationId(correlationId);
+        return response;
+    }
+}
@@ -0,0 +1,74 @@
+package com.smartfa.cluster.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 哈希时间轮测试类
+ */
+class TimingWheelTest {
+
+    private TimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void testSchedule_RunsNoEarlierThanDelay() throws InterruptedException {
+        // Given
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // When
+        wheel.schedule(fired::countDown, 50, TimeUnit.MILLISECONDS);
+
+        // Then
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void testSchedule_DelayLongerThanOneRevolution() throws InterruptedException {
+        // Given 8个槽位x10ms，一圈为80ms
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // When
+        wheel.schedule(fired::countDown, 200, TimeUnit.MILLISECONDS);
+
+        // Then
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void testCancel_TaskDoesNotRun() throws InterruptedException {
+        // Given
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch later = new CountDownLatch(1);
+        TimingWheel.Timeout timeout = wheel.schedule(() -> ran.set(true), 30, TimeUnit.MILLISECONDS);
+
+        // When
+        timeout.cancel();
+        wheel.schedule(later::countDown, 60, TimeUnit.MILLISECONDS);
+
+        // Then 后登记的任务执行时，被取消任务的槽位已经过去
+        assertTrue(later.await(1, TimeUnit.SECONDS));
+        assertTrue(timeout.isCancelled());
+        assertFalse(ran.get());
+    }
+}
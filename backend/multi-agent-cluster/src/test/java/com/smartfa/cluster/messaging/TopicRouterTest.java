@@ -0,0 +1,105 @@
+package com.smartfa.cluster.messaging;
+
+import com.smartfa.cluster.dto.MessageDto;
+import com.smartfa.cluster.entity.Agent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 主题路由器测试类
+ */
+class TopicRouterTest {
+
+    private final AgentMailbox agentA = mailbox("agent-a");
+    private final AgentMailbox agentB = mailbox("agent-b");
+    private final AgentMailbox agentC = mailbox("agent-c");
+
+    @Test
+    void testRouteByCapability_RoundRobinCyclesThroughSubscribers() {
+        // Given
+        TopicRouter router = new TopicRouter(LoadBalanceStrategy.ROUND_ROBIN);
+        router.rebuild(Map.of("ocr", List.of(agentA, agentB, agentC)), Map.of());
+
+        // When
+        List<String> selected = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            selected.add(router.routeByCapability("ocr", null).getAgentId());
+        }
+
+        // Then
+        assertEquals(List.of("agent-a", "agent-b", "agent-c", "agent-a", "agent-b", "agent-c"), selected);
+    }
+
+    @Test
+    void testRouteByCapability_NeverSelectsExcludedSender() {
+        // Given
+        TopicRouter router = new TopicRouter(LoadBalanceStrategy.ROUND_ROBIN);
+        router.rebuild(Map.of("ocr", List.of(agentA, agentB)), Map.of());
+
+        // When & Then
+        for (int i = 0; i < 4; i++) {
+            assertSame(agentB, router.routeByCapability("ocr", "agent-a"));
+        }
+    }
+
+    @Test
+    void testRouteByCapability_OnlySubscriberIsSender() {
+        // Given
+        TopicRouter router = new TopicRouter(LoadBalanceStrategy.LEAST_DEPTH);
+        router.rebuild(Map.of("ocr", List.of(agentA)), Map.of());
+
+        // When & Then
+        assertNull(router.routeByCapability("ocr", "agent-a"));
+        assertNull(router.routeByCapability("unknown", "agent-b"));
+    }
+
+    @Test
+    void testRouteByType_LeastDepthPrefersShallowerMailbox() {
+        // Given
+        TopicRouter router = new TopicRouter(LoadBalanceStrategy.LEAST_DEPTH);
+        router.rebuild(Map.of(), Map.of(Agent.AgentType.DATA_ANALYSIS, List.of(agentA, agentB)));
+        for (int i = 0; i < 3; i++) {
+            agentA.offer(envelope(i));
+        }
+
+        // When & Then 两个成员时两个候选总是都被比较
+        for (int i = 0; i < 10; i++) {
+            assertSame(agentB, router.routeByType(Agent.AgentType.DATA_ANALYSIS, null));
+        }
+        assertArrayEquals(new AgentMailbox[]{agentA, agentB}, router.typeMembers(Agent.AgentType.DATA_ANALYSIS));
+        assertEquals(0, router.typeMembers(Agent.AgentType.MONITORING).length);
+    }
+
+    @Test
+    void testSetStrategy_AppliesToTopicAfterRebuild() {
+        // Given
+        TopicRouter router = new TopicRouter(LoadBalanceStrategy.LEAST_DEPTH);
+        router.setStrategy("ocr", LoadBalanceStrategy.ROUND_ROBIN);
+        agentA.offer(envelope(0));
+
+        // When
+        router.rebuild(Map.of("ocr", List.of(agentA, agentB)), Map.of());
+
+        // Then 轮询不看邮箱深度
+        assertSame(agentA, router.routeByCapability("ocr", null));
+        assertSame(agentB, router.routeByCapability("ocr", null));
+    }
+
+    private static AgentMailbox mailbox(String agentId) {
+        return new AgentMailbox(agentId, 64, MailboxOverflowPolicy.REJECT, WaitStrategy.PARK,
+                LaneScheduling.STRICT, 20, dropped -> { }, new SimpleMeterRegistry());
+    }
+
+    private static MessageEnvelope envelope(long id) {
+        MessageDto message = new MessageDto();
+        message.setId(id);
+        message.setType("TASK_ASSIGNMENT");
+        return MessageEnvelope.of("sender", message);
+    }
+}
@@ -0,0 +1,112 @@
+package com.smartfa.cluster.service;
+
+import com.smartfa.cluster.dto.MessageDto;
+import com.smartfa.cluster.entity.Agent;
+import com.smartfa.cluster.messaging.AgentMailbox;
+import com.smartfa.cluster.messaging.DeadLetterReason;
+import com.smartfa.cluster.messaging.LaneScheduling;
+import com.smartfa.cluster.messaging.MailboxOverflowPolicy;
+import com.smartfa.cluster.messaging.MessageEnvelope;
+import com.smartfa.cluster.messaging.WaitStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 智能体通信服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class AgentCommunicationServiceTest {
+
+    @Mock
+    private AgentMailboxRegistry mailboxRegistry;
+
+    @Mock
+    private AgentMessageJournal messageJournal;
+
+    @Mock
+    private DeadLetterService deadLetterService;
+
+    @InjectMocks
+    private AgentCommunicationService communicationService;
+
+    @Test
+    void testBroadcastMessage_SharesOneEnvelopeAndSkipsSender() {
+        // Given
+        AgentMailbox sender = mailbox("agent-a");
+        AgentMailbox first = mailbox("agent-b");
+        AgentMailbox second = mailbox("agent-c");
+        when(mailboxRegistry.onlineMailboxes()).thenReturn(new AgentMailbox[]{sender, first, second});
+
+        // When
+        int delivered = communicationService.broadcastMessage("agent-a", message(1L));
+
+        // Then
+        assertEquals(2, delivered);
+        assertEquals(0, sender.size());
+        MessageEnvelope received = first.poll();
+        assertNotNull(received);
+        assertSame(received, second.poll());
+    }
+
+    @Test
+    void testBroadcastToType_DeliversOnlyToGroup() {
+        // Given
+        AgentMailbox member = mailbox("agent-b");
+        when(mailboxRegistry.typeMembers(Agent.AgentType.DATA_ANALYSIS)).thenReturn(new AgentMailbox[]{member});
+        when(mailboxRegistry.typeMembers(Agent.AgentType.REPORT_GENERATION)).thenReturn(new AgentMailbox[0]);
+
+        // When
+        int delivered = communicationService.broadcastToType("agent-a", Agent.AgentType.DATA_ANALYSIS, message(1L));
+        int none = communicationService.broadcastToType("agent-a", Agent.AgentType.REPORT_GENERATION, message(2L));
+
+        // Then
+        assertEquals(1, delivered);
+        assertEquals(0, none);
+        assertEquals(1L, member.poll().id());
+    }
+
+    @Test
+    void testUnregisterAgent_StopsConsumer() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(communicationService, "consumerBatchSize", 16);
+        ReflectionTestUtils.setField(communicationService, "consumerShutdownTimeoutMs", 1000L);
+        AgentMailbox mailbox = mailbox("agent-b");
+        when(mailboxRegistry.get("agent-b")).thenReturn(mailbox);
+        when(mailboxRegistry.unregister("agent-b")).thenReturn(mailbox);
+        CompletableFuture<Thread> consumerThread = new CompletableFuture<>();
+        assertTrue(communicationService.subscribe("agent-b",
+                message -> consumerThread.complete(Thread.currentThread())));
+        mailbox.offer(MessageEnvelope.of("agent-a", message(1L)));
+        Thread thread = consumerThread.get(1, TimeUnit.SECONDS);
+
+        // When
+        communicationService.unregisterAgent("agent-b");
+
+        // Then
+        assertFalse(thread.isAlive());
+        verify(deadLetterService).moveToDeadLetters(mailbox, DeadLetterReason.UNREGISTERED);
+    }
+
+    private static AgentMailbox mailbox(String agentId) {
+        return new AgentMailbox(agentId, 64, MailboxOverflowPolicy.REJECT, WaitStrategy.PARK,
+                LaneScheduling.STRICT, 20, dropped -> { }, new SimpleMeterRegistry());
+    }
+
+    private static MessageDto message(long id) {
+        MessageDto message = new MessageDto();
+        message.setId(id);
+        message.setType("TASK_ASSIGNMENT");
+        return message;
+    }
+}